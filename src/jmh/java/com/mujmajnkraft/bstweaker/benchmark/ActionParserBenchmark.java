@@ -0,0 +1,35 @@
+package com.mujmajnkraft.bstweaker.benchmark;
+
+import com.mujmajnkraft.bstweaker.effects.ActionParser;
+import com.mujmajnkraft.bstweaker.effects.EventAction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/** ActionParser cost per action line (load/reload time). */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ActionParserBenchmark {
+
+    @Param({ "event.amount *= 1.5", "victim.hurtResistantTime = 0", "victim.addPotion('poison', 100, 1)",
+            "self.heal(2)", "event.cancel()", "if (self.getHealth() < 5) self.heal(1)" })
+    public String line;
+
+    @Benchmark
+    public EventAction tryParse() {
+        return ActionParser.tryParse(line);
+    }
+}
@@ -0,0 +1,95 @@
+package com.mujmajnkraft.bstweaker.benchmark;
+
+import net.minecraft.entity.EntityLivingBase;
+import net.minecraft.inventory.EntityEquipmentSlot;
+import net.minecraft.item.ItemStack;
+import net.minecraft.potion.Potion;
+import net.minecraft.potion.PotionEffect;
+import net.minecraft.util.DamageSource;
+import net.minecraft.util.EnumHandSide;
+import net.minecraft.world.World;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Lightweight EntityLivingBase stand-in - its world has no chunks, so every
+ * method that would reach them (potions, damage) is served from plain fields instead.
+ */
+public class BenchEntity extends EntityLivingBase {
+
+    private final Map<Potion, PotionEffect> potions = new IdentityHashMap<>();
+    private ItemStack mainHand = ItemStack.EMPTY;
+    public float damageTaken;
+
+    public BenchEntity(World world) {
+        super(world);
+    }
+
+    public BenchEntity holding(ItemStack stack) {
+        this.mainHand = stack;
+        return this;
+    }
+
+    @Override
+    public Iterable<ItemStack> getArmorInventoryList() {
+        return Arrays.asList(ItemStack.EMPTY, ItemStack.EMPTY, ItemStack.EMPTY, ItemStack.EMPTY);
+    }
+
+    @Override
+    public ItemStack getItemStackFromSlot(EntityEquipmentSlot slot) {
+        return slot == EntityEquipmentSlot.MAINHAND ? mainHand : ItemStack.EMPTY;
+    }
+
+    @Override
+    public void setItemStackToSlot(EntityEquipmentSlot slot, ItemStack stack) {
+        if (slot == EntityEquipmentSlot.MAINHAND)
+            mainHand = stack;
+    }
+
+    @Override
+    public EnumHandSide getPrimaryHand() {
+        return EnumHandSide.RIGHT;
+    }
+
+    @Override
+    public boolean attackEntityFrom(DamageSource source, float amount) {
+        damageTaken += amount;
+        return true;
+    }
+
+    @Override
+    public void addPotionEffect(PotionEffect effect) {
+        potions.put(effect.getPotion(), effect);
+    }
+
+    @Override
+    public void removePotionEffect(Potion potion) {
+        potions.remove(potion);
+    }
+
+    @Nullable
+    @Override
+    public PotionEffect removeActivePotionEffect(@Nullable Potion potion) {
+        return potions.remove(potion);
+    }
+
+    @Override
+    public boolean isPotionActive(Potion potion) {
+        return potions.containsKey(potion);
+    }
+
+    @Nullable
+    @Override
+    public PotionEffect getActivePotionEffect(Potion potion) {
+        return potions.get(potion);
+    }
+
+    @Override
+    public Collection<PotionEffect> getActivePotionEffects() {
+        return potions.values();
+    }
+}
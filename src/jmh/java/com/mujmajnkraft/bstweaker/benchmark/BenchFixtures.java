@@ -0,0 +1,64 @@
+package com.mujmajnkraft.bstweaker.benchmark;
+
+import com.mujmajnkraft.bstweaker.config.BSTweakerConfig;
+import com.mujmajnkraft.bstweaker.effects.EffectEventHandler;
+import com.mujmajnkraft.bstweaker.effects.PotionHandles;
+import com.mujmajnkraft.bstweaker.effects.ScriptEngine_;
+import com.mujmajnkraft.bstweaker.effects.WeaponEvent;
+import net.minecraft.init.Bootstrap;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.util.EntityDamageSource;
+import net.minecraft.world.World;
+import net.minecraftforge.event.entity.living.LivingHurtEvent;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/** Shared benchmark setup - registries, weapons and stand-in entities. */
+public class BenchFixtures {
+
+    private static boolean initialized = false;
+    private static World world;
+
+    /** Bootstrap vanilla registries (potions, enchantments) once and lift the script budget. */
+    public static synchronized void init() {
+        if (initialized)
+            return;
+        Bootstrap.register();
+        // Same order as the game: handles are interned once registries are complete
+        PotionHandles.build();
+        // The game warms the engine in the background; benchmarks wait for it up front
+        ScriptEngine_.awaitReady(60000);
+        // Benchmarks never tick the server, so the per-tick budget would never reset
+        BSTweakerConfig.scriptInvocationBudgetMicros = 0;
+        BSTweakerConfig.scriptTickBudgetMicros = 0;
+        // Server world so handlers don't skip the stand-ins as client-side
+        world = new BenchWorld();
+        initialized = true;
+    }
+
+    /** Create a weapon item with the given events registered. */
+    public static Item weapon(String name, WeaponEvent... events) {
+        Item item = new Item().setRegistryName("bstweaker", name);
+        EffectEventHandler.registerWeaponEffects(item, Arrays.asList(events));
+        return item;
+    }
+
+    /** Weapon event from action lines. */
+    public static WeaponEvent event(String type, String when, String... actions) {
+        List<String> list = actions.length == 0 ? Collections.<String>emptyList() : Arrays.asList(actions);
+        return new WeaponEvent(type, when, list, "");
+    }
+
+    /** Stand-in entity holding the item in its main hand (null = empty hand). */
+    public static BenchEntity entity(Item held) {
+        return new BenchEntity(world).holding(held == null ? ItemStack.EMPTY : new ItemStack(held));
+    }
+
+    /** Hurt event of attacker hitting victim. */
+    public static LivingHurtEvent hurt(BenchEntity attacker, BenchEntity victim, float amount) {
+        return new LivingHurtEvent(victim, new EntityDamageSource("player", attacker), amount);
+    }
+}
@@ -0,0 +1,32 @@
+package com.mujmajnkraft.bstweaker.benchmark;
+
+import net.minecraft.profiler.Profiler;
+import net.minecraft.world.GameType;
+import net.minecraft.world.World;
+import net.minecraft.world.WorldProviderSurface;
+import net.minecraft.world.WorldSettings;
+import net.minecraft.world.WorldType;
+import net.minecraft.world.chunk.IChunkProvider;
+import net.minecraft.world.storage.WorldInfo;
+
+/**
+ * Server-side world without chunks or a save - just enough for stand-in
+ * entities to take the same server paths as in game (side checks, caches).
+ */
+public class BenchWorld extends World {
+
+    public BenchWorld() {
+        super(null, new WorldInfo(new WorldSettings(0L, GameType.SURVIVAL, false, false, WorldType.DEFAULT), "bench"),
+                new WorldProviderSurface(), new Profiler(), false);
+    }
+
+    @Override
+    protected IChunkProvider createChunkProvider() {
+        return null;
+    }
+
+    @Override
+    protected boolean isChunkLoaded(int x, int z, boolean allowEmpty) {
+        return false;
+    }
+}
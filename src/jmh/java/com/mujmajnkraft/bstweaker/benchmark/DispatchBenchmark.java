@@ -0,0 +1,72 @@
+package com.mujmajnkraft.bstweaker.benchmark;
+
+import com.mujmajnkraft.bstweaker.effects.EffectEventHandler;
+import com.mujmajnkraft.bstweaker.effects.WeaponEvent;
+import net.minecraft.item.Item;
+import net.minecraftforge.event.entity.living.LivingHurtEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/** Full onHit/onHurt dispatch through EffectEventHandler for one hit (event allocation included). */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatchBenchmark {
+
+    @Param({ "none", "native", "script", "mixed", "conditionFails" })
+    public String mode;
+
+    private BenchEntity attacker;
+    private BenchEntity victim;
+
+    @Setup
+    public void setup() {
+        BenchFixtures.init();
+        Item weapon;
+        switch (mode) {
+            case "native":
+                weapon = BenchFixtures.weapon("bench_" + mode,
+                        BenchFixtures.event("onHit", "", "event.amount *= 1.0", "victim.hurtResistantTime = 0"));
+                break;
+            case "script":
+                weapon = BenchFixtures.weapon("bench_" + mode,
+                        BenchFixtures.event("onHit", "", "event.setAmount(event.getAmount() * victim.getHealth() / victim.getHealth())"));
+                break;
+            case "mixed":
+                weapon = BenchFixtures.weapon("bench_" + mode,
+                        BenchFixtures.event("onHit", "", "event.amount *= 1.0",
+                                "event.setAmount(event.getAmount() * victim.getHealth() / victim.getHealth())"));
+                break;
+            case "conditionFails":
+                weapon = BenchFixtures.weapon("bench_" + mode,
+                        BenchFixtures.event("onHit", "self.getHealth() > 1000", "event.amount *= 2"));
+                break;
+            default:
+                weapon = BenchFixtures.weapon("bench_" + mode, new WeaponEvent[0]);
+                break;
+        }
+        attacker = BenchFixtures.entity(weapon);
+        victim = BenchFixtures.entity(null);
+    }
+
+    @Benchmark
+    public float onLivingHurt() {
+        LivingHurtEvent event = BenchFixtures.hurt(attacker, victim, 4.0f);
+        EffectEventHandler.onLivingHurt(event);
+        return event.getAmount();
+    }
+}
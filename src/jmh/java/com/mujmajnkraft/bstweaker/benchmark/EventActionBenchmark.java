@@ -0,0 +1,61 @@
+package com.mujmajnkraft.bstweaker.benchmark;
+
+import com.mujmajnkraft.bstweaker.effects.ActionParser;
+import com.mujmajnkraft.bstweaker.effects.EventAction;
+import com.mujmajnkraft.bstweaker.effects.EventContext;
+import net.minecraft.item.Item;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/** Individual native EventAction implementations against stand-in entities. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventActionBenchmark {
+
+    @Param({ "victim.addPotion('poison', 100, 1)", // ApplyPotionAction
+            "victim.removePotion('poison')", // RemovePotionAction
+            "self.suppressPotion('speed', 0)", // SuppressPotionAction
+            "self.heal(1)", // HealAction
+            "victim.damage(2)", // DamageAction
+            "victim.setFire(3)", // IgniteAction
+            "event.cancel()", // CancelEventAction
+            "event.amount *= 1.5", // FieldOperationAction
+            "victim.hurtResistantTime = 0" }) // FieldSetAction
+    public String line;
+
+    private EventAction action;
+    private EventContext ctx;
+
+    @Setup
+    public void setup() {
+        BenchFixtures.init();
+        action = ActionParser.tryParse(line);
+        if (action == null)
+            throw new IllegalStateException("Not a native action: " + line);
+
+        Item weapon = BenchFixtures.weapon("bench_action");
+        BenchEntity self = BenchFixtures.entity(weapon);
+        BenchEntity victim = BenchFixtures.entity(null);
+        ctx = new EventContext(self, victim, weapon, BenchFixtures.hurt(self, victim, 4.0f));
+    }
+
+    @Benchmark
+    public void execute() {
+        action.execute(ctx);
+    }
+}
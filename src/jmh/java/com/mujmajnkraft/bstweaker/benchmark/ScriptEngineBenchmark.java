@@ -0,0 +1,67 @@
+package com.mujmajnkraft.bstweaker.benchmark;
+
+import com.mujmajnkraft.bstweaker.effects.EventContext;
+import com.mujmajnkraft.bstweaker.effects.ScriptEngine_;
+import net.minecraft.item.Item;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.script.CompiledScript;
+import java.util.concurrent.TimeUnit;
+
+/** ScriptEngine_ execute paths - precompiled vs source, plus condition tests. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScriptEngineBenchmark {
+
+    private static final String ACTION = "event.setAmount(event.getAmount() * 1.5); victim.setHurtResistantTime(0);";
+    private static final String CONDITION = "(self.getHealth() > victim.getHealth())";
+
+    private EventContext ctx;
+    private CompiledScript action;
+    private CompiledScript condition;
+
+    @Setup
+    public void setup() {
+        BenchFixtures.init();
+        Item weapon = BenchFixtures.weapon("bench_script_engine");
+        BenchEntity attacker = BenchFixtures.entity(weapon);
+        BenchEntity victim = BenchFixtures.entity(null);
+        ctx = new EventContext(attacker, victim, weapon, BenchFixtures.hurt(attacker, victim, 4.0f));
+        action = ScriptEngine_.compile(ACTION);
+        condition = ScriptEngine_.compile(CONDITION);
+        if (action == null || condition == null)
+            throw new IllegalStateException("Script engine unavailable");
+    }
+
+    @Benchmark
+    public void executeCompiled() {
+        ScriptEngine_.execute(action, ctx);
+        ScriptEngine_.release(ctx);
+    }
+
+    @Benchmark
+    public void executeSource() {
+        ScriptEngine_.execute(ACTION, ctx);
+        ScriptEngine_.release(ctx);
+    }
+
+    @Benchmark
+    public boolean testCondition() {
+        boolean result = ScriptEngine_.test(condition, ctx);
+        ScriptEngine_.release(ctx);
+        return result;
+    }
+}
@@ -1,5 +1,7 @@
 package com.mujmajnkraft.bstweaker;
 
+import com.mujmajnkraft.bstweaker.effects.ScriptCache;
+import com.mujmajnkraft.bstweaker.effects.ScriptWarmup;
 import com.mujmajnkraft.bstweaker.util.TweakerWeaponInjector;
 import com.mujmajnkraft.bstweaker.proxy.CommonProxy;
 
@@ -8,6 +10,7 @@ import net.minecraftforge.fml.common.Mod.EventHandler;
 import net.minecraftforge.fml.common.Mod.Instance;
 import net.minecraftforge.fml.common.SidedProxy;
 import net.minecraftforge.fml.common.event.FMLInitializationEvent;
+import net.minecraftforge.fml.common.event.FMLLoadCompleteEvent;
 import net.minecraftforge.fml.common.event.FMLPostInitializationEvent;
 import net.minecraftforge.fml.common.event.FMLPreInitializationEvent;
 import org.apache.logging.log4j.LogManager;
@@ -45,9 +48,17 @@ public class BSTweaker {
         LOG.info("BSTweaker PostInit - Loaded " + weaponCount + " custom weapons");
     }
 
+    @EventHandler
+    public void loadComplete(FMLLoadCompleteEvent event) {
+        // Registries are frozen now - resolve potion ids once and compile the startup weapon effects
+        ScriptCache.compilePending();
+    }
+
     @EventHandler
     public void serverStarting(net.minecraftforge.fml.common.event.FMLServerStartingEvent event) {
         event.registerServerCommand(new com.mujmajnkraft.bstweaker.command.BSTweakerCommand());
         LOG.info("BSTweaker command registered");
+        // Effects are compiled and the script engine started by now - warm them before players join
+        ScriptWarmup.run();
     }
 }
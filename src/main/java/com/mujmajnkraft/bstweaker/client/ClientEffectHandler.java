@@ -0,0 +1,78 @@
+package com.mujmajnkraft.bstweaker.client;
+
+import com.mujmajnkraft.bstweaker.BSTweaker;
+import com.mujmajnkraft.bstweaker.Reference;
+import com.mujmajnkraft.bstweaker.effects.CompiledWeaponEvent;
+import com.mujmajnkraft.bstweaker.effects.EventContext;
+import com.mujmajnkraft.bstweaker.effects.EventTrigger;
+import com.mujmajnkraft.bstweaker.effects.ScriptCache;
+import com.mujmajnkraft.bstweaker.effects.ScriptEngine_;
+import com.mujmajnkraft.bstweaker.effects.WeaponEffects;
+import net.minecraft.client.Minecraft;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.EntityLivingBase;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+import net.minecraftforge.fml.relauncher.Side;
+
+import java.util.Map;
+
+/**
+ * Client-side whenHeld effects - only events marked "side": "client" (or "both") run here,
+ * for cosmetic effects. Costs one map check per client tick while no weapon has such events.
+ * They run the client's own compiled copies (CompiledWeaponEvent.compileClient) in the client
+ * thread's own script globals, without the budget and profiler; events using area, timer or
+ * effect state calls are rejected for the client when scripts load.
+ */
+@Mod.EventBusSubscriber(modid = Reference.MOD_ID, value = Side.CLIENT)
+public class ClientEffectHandler {
+
+    @SubscribeEvent
+    public static void onClientTick(TickEvent.ClientTickEvent event) {
+        if (event.phase != TickEvent.Phase.END)
+            return;
+        Map<Item, WeaponEffects> weapons = ScriptCache.getClientView();
+        if (weapons.isEmpty())
+            return;
+
+        Minecraft mc = Minecraft.getMinecraft();
+        if (mc.world == null || mc.isGamePaused())
+            return;
+
+        long tick = mc.world.getTotalWorldTime();
+        for (Entity entity : mc.world.loadedEntityList) {
+            if (!(entity instanceof EntityLivingBase))
+                continue;
+            EntityLivingBase living = (EntityLivingBase) entity;
+            ItemStack mainHand = living.getHeldItemMainhand();
+            if (mainHand.isEmpty())
+                continue;
+            WeaponEffects effects = weapons.get(mainHand.getItem());
+            if (effects != null)
+                runHeld(living, mainHand.getItem(), effects.getClient(EventTrigger.HELD), tick);
+        }
+    }
+
+    private static void runHeld(EntityLivingBase entity, Item weapon, CompiledWeaponEvent[] events, long tick) {
+        EventContext ctx = null;
+        try {
+            for (CompiledWeaponEvent cwe : events) {
+                if ((tick + entity.getEntityId()) % cwe.getPeriod() != 0)
+                    continue;
+                if (ctx == null)
+                    ctx = new EventContext(entity, null, weapon, null);
+                try {
+                    cwe.execute(ctx);
+                } catch (Exception e) {
+                    BSTweaker.LOG.error("Client script error: " + e.getMessage());
+                }
+            }
+        } finally {
+            if (ctx != null)
+                ScriptEngine_.release(ctx);
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.mujmajnkraft.bstweaker.command;
 
 import com.mujmajnkraft.bstweaker.BSTweaker;
+import com.mujmajnkraft.bstweaker.effects.ScriptProfiler;
+import com.mujmajnkraft.bstweaker.effects.ScriptWarmup;
 import com.mujmajnkraft.bstweaker.util.TweakerWeaponInjector;
 import net.minecraft.client.Minecraft;
 import net.minecraft.command.CommandBase;
@@ -10,16 +12,20 @@ import net.minecraft.server.MinecraftServer;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.text.TextComponentString;
 import net.minecraft.util.text.TextFormatting;
+import net.minecraftforge.fml.common.Loader;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 
 import javax.annotation.Nullable;
 import java.io.File;
+import java.text.SimpleDateFormat;
 import java.util.Arrays;
+import java.util.Date;
 import java.util.List;
 
 /**
  * /bstweaker reload 命令 - 热重载配置文件
+ * /bstweaker profile [start|stop|dump] - 脚本性能分析
  */
 public class BSTweakerCommand extends CommandBase {
 
@@ -30,7 +36,8 @@ public class BSTweakerCommand extends CommandBase {
 
     @Override
     public String getUsage(ICommandSender sender) {
-        return "/bstweaker reload - Reload tooltips, scripts, lang, and resources";
+        return "/bstweaker reload - Reload tooltips, scripts, lang, and resources\n"
+                + "/bstweaker profile [start|stop|dump] - Profile weapon scripts";
     }
 
     @Override
@@ -41,7 +48,10 @@ public class BSTweakerCommand extends CommandBase {
     @Override
     public List<String> getTabCompletions(MinecraftServer server, ICommandSender sender, String[] args, @Nullable BlockPos targetPos) {
         if (args.length == 1) {
-            return getListOfStringsMatchingLastWord(args, "reload");
+            return getListOfStringsMatchingLastWord(args, "reload", "profile");
+        }
+        if (args.length == 2 && "profile".equalsIgnoreCase(args[0])) {
+            return getListOfStringsMatchingLastWord(args, "start", "stop", "dump");
         }
         return super.getTabCompletions(server, sender, args, targetPos);
     }
@@ -49,12 +59,14 @@ public class BSTweakerCommand extends CommandBase {
     @Override
     public void execute(MinecraftServer server, ICommandSender sender, String[] args) throws CommandException {
         if (args.length == 0) {
-            sender.sendMessage(new TextComponentString(TextFormatting.YELLOW + "Usage: /bstweaker reload"));
+            sender.sendMessage(new TextComponentString(TextFormatting.YELLOW + "Usage: /bstweaker <reload|profile>"));
             return;
         }
 
         if ("reload".equalsIgnoreCase(args[0])) {
             executeReload(sender);
+        } else if ("profile".equalsIgnoreCase(args[0])) {
+            executeProfile(sender, args.length > 1 ? args[1] : "dump");
         } else {
             sender.sendMessage(new TextComponentString(TextFormatting.RED + "Unknown subcommand: " + args[0]));
         }
@@ -71,6 +83,11 @@ public class BSTweakerCommand extends CommandBase {
             sender.sendMessage(new TextComponentString(TextFormatting.GREEN + "  ✓ Reloaded tooltips.json and scripts.json"));
             reloaded++;
 
+            long warmupMillis = ScriptWarmup.run();
+            if (warmupMillis >= 0) {
+                sender.sendMessage(new TextComponentString(TextFormatting.GREEN + "  ✓ Warmed up scripts in " + warmupMillis + " ms"));
+            }
+
             // 2. 重新复制资源文件 (models, textures, lang)
             com.mujmajnkraft.bstweaker.util.ResourceInjector.injectResources();
             sender.sendMessage(new TextComponentString(TextFormatting.GREEN + "  ✓ Re-injected resource files"));
@@ -93,6 +110,50 @@ public class BSTweakerCommand extends CommandBase {
         }
     }
 
+    private void executeProfile(ICommandSender sender, String action) {
+        if ("start".equalsIgnoreCase(action)) {
+            ScriptProfiler.start();
+            sender.sendMessage(new TextComponentString(TextFormatting.GREEN + "[BSTweaker] Script profiler started"));
+        } else if ("stop".equalsIgnoreCase(action)) {
+            ScriptProfiler.stop();
+            sender.sendMessage(new TextComponentString(TextFormatting.GREEN + "[BSTweaker] Script profiler stopped"));
+        } else if ("dump".equalsIgnoreCase(action)) {
+            dumpProfile(sender);
+        } else {
+            sender.sendMessage(new TextComponentString(TextFormatting.YELLOW + "Usage: /bstweaker profile [start|stop|dump]"));
+        }
+    }
+
+    private void dumpProfile(ICommandSender sender) {
+        List<ScriptProfiler.Stats> top = ScriptProfiler.getTopOffenders();
+        sender.sendMessage(new TextComponentString(TextFormatting.YELLOW + String.format(
+                "[BSTweaker] Script profile (%.1fs, %s):", ScriptProfiler.getElapsedSeconds(),
+                ScriptProfiler.isEnabled() ? "running" : "stopped")));
+        if (top.isEmpty()) {
+            sender.sendMessage(new TextComponentString(TextFormatting.GRAY + "  No script invocations recorded"));
+            return;
+        }
+
+        for (int i = 0; i < Math.min(10, top.size()); i++) {
+            ScriptProfiler.Stats s = top.get(i);
+            TextFormatting color = s.getErrors() > 0 ? TextFormatting.RED : TextFormatting.WHITE;
+            sender.sendMessage(new TextComponentString(color + String.format(
+                    "  %s %s: %d calls, total %.2fms, p99 %.1fus, errors %d", s.weaponId, s.eventType,
+                    s.getInvocations(), s.getTotalNanos() / 1e6, s.getPercentileNanos(0.99) / 1e3,
+                    s.getErrors())));
+        }
+
+        try {
+            File dir = new File(Loader.instance().getConfigDir(), "bstweaker");
+            File file = new File(dir, "profile-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".csv");
+            ScriptProfiler.writeCsv(file);
+            sender.sendMessage(new TextComponentString(TextFormatting.GREEN + "  ✓ Saved " + file.getName()));
+        } catch (Exception e) {
+            sender.sendMessage(new TextComponentString(TextFormatting.RED + "  Failed to write profile: " + e.getMessage()));
+            BSTweaker.LOG.error("Failed to write script profile", e);
+        }
+    }
+
     private boolean isClientSide() {
         try {
             return net.minecraftforge.fml.common.FMLCommonHandler.instance().getSide() == Side.CLIENT;
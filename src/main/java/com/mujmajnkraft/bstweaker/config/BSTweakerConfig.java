@@ -35,6 +35,105 @@ public class BSTweakerConfig {
     @Config.LangKey("bstweaker.config.enableFastReload")
     public static boolean enableFastReload = true;
 
+    @Config.Comment({
+            "Default interval in ticks for whenHeld weapon effects",
+            "Events can override it with a \"period\" field in scripts.json",
+            "whenHeld 武器效果的默认执行间隔（tick），事件可在 scripts.json 中用 \"period\" 覆盖"
+    })
+    @Config.LangKey("bstweaker.config.heldEffectPeriod")
+    @Config.RangeInt(min = 1, max = 1200)
+    public static int heldEffectPeriod = 5;
+
+    @Config.Comment({
+            "Entities farther than this many blocks from every player run whenHeld effects",
+            "at a reduced rate (see heldInactiveSlowdown). 0 = always full rate",
+            "距离所有玩家超过该格数的实体以降低的频率执行 whenHeld 效果（见 heldInactiveSlowdown），0 = 始终全速"
+    })
+    @Config.LangKey("bstweaker.config.heldActivationRange")
+    @Config.RangeInt(min = 0, max = 512)
+    public static int heldActivationRange = 64;
+
+    @Config.Comment({
+            "Interval multiplier for whenHeld effects outside the activation range. 0 = don't run them at all",
+            "激活范围外 whenHeld 效果的间隔倍数，0 = 完全不执行"
+    })
+    @Config.LangKey("bstweaker.config.heldInactiveSlowdown")
+    @Config.RangeInt(min = 0, max = 100)
+    public static int heldInactiveSlowdown = 4;
+
+    @Config.Comment({
+            "Compile scripts that only use the typed script subset (numbers, if/else, locals,",
+            "self/victim/event calls, potions) to JVM bytecode instead of running them in Nashorn",
+            "Unsupported scripts always fall back to the script engine",
+            "将仅使用类型化脚本子集的脚本编译为 JVM 字节码，而不是交给 Nashorn 执行",
+            "不支持的脚本始终回退到脚本引擎"
+    })
+    @Config.LangKey("bstweaker.config.compileScripts")
+    public static boolean compileScripts = true;
+
+    @Config.Comment({
+            "Merge potion adds/removes requested by weapon effects and apply only the net change at the end of the tick",
+            "合并武器效果请求的药水添加/移除，仅在 tick 结束时应用最终变化"
+    })
+    @Config.LangKey("bstweaker.config.bufferPotionChanges")
+    public static boolean bufferPotionChanges = true;
+
+    @Config.Comment({
+            "Skip re-applying an identical potion effect while its remaining duration is above this many ticks",
+            "Keep it above the period of whenHeld events that refresh effects, 0 = always re-apply",
+            "相同药水效果剩余时长高于该值（tick）时跳过重复施加，应大于刷新效果的 whenHeld 事件间隔，0 = 总是重新施加"
+    })
+    @Config.LangKey("bstweaker.config.potionRefreshThreshold")
+    @Config.RangeInt(min = 0, max = 72000)
+    public static int potionRefreshThreshold = 40;
+
+    @Config.Comment({
+            "Run every weapon event this many times against stand-in entities at server start and after reload,",
+            "so the first real hit doesn't run cold (e.g. 200), 0 = off. Scripts run side-effect free on the stand-ins,",
+            "but creating them posts entity construction/capability events with no world; if another mod fails on those, warm-up is skipped",
+            "服务器启动和重载后，用替身实体将每个武器事件预运行该次数，避免首次命中时冷启动（如 200），0 = 关闭，脚本在替身上运行不会产生副作用，",
+            "但创建替身会发布没有世界的实体构造/能力事件；若其他模组处理这些事件时出错，将跳过预热"
+    })
+    @Config.LangKey("bstweaker.config.warmupIterations")
+    @Config.RangeInt(min = 0, max = 10000)
+    public static int warmupIterations = 0;
+
+    @Config.Comment({
+            "Time budget in microseconds for a single weapon event run, 0 = no limit",
+            "Events that keep exceeding it (or keep throwing) are disabled for scriptCooldownSeconds",
+            "单次武器事件执行的时间预算（微秒），0 = 不限制",
+            "持续超出预算（或持续报错）的事件会被暂停 scriptCooldownSeconds 秒"
+    })
+    @Config.LangKey("bstweaker.config.scriptInvocationBudgetMicros")
+    @Config.RangeInt(min = 0, max = 1000000)
+    public static int scriptInvocationBudgetMicros = 2000;
+
+    @Config.Comment({
+            "Time budget in microseconds for all weapon scripts in one server tick, 0 = no limit",
+            "Once used up, remaining script events of that tick are skipped (native actions still run)",
+            "每个服务器 tick 内所有武器脚本的时间预算（微秒），0 = 不限制",
+            "用尽后该 tick 剩余的脚本事件将被跳过（原生动作仍会执行）"
+    })
+    @Config.LangKey("bstweaker.config.scriptTickBudgetMicros")
+    @Config.RangeInt(min = 0, max = 1000000)
+    public static int scriptTickBudgetMicros = 10000;
+
+    @Config.Comment({
+            "Number of over-budget runs or errors within one minute before an event is disabled",
+            "一分钟内超出预算或报错多少次后暂停该事件"
+    })
+    @Config.LangKey("bstweaker.config.scriptStrikeLimit")
+    @Config.RangeInt(min = 1, max = 1000)
+    public static int scriptStrikeLimit = 5;
+
+    @Config.Comment({
+            "How long in seconds a misbehaving event stays disabled",
+            "异常事件被暂停的时长（秒）"
+    })
+    @Config.LangKey("bstweaker.config.scriptCooldownSeconds")
+    @Config.RangeInt(min = 1, max = 86400)
+    public static int scriptCooldownSeconds = 60;
+
     @Mod.EventBusSubscriber(modid = Reference.MOD_ID)
     private static class EventHandler {
         @SubscribeEvent
@@ -2,6 +2,7 @@ package com.mujmajnkraft.bstweaker.effects;
 
 import com.mujmajnkraft.bstweaker.BSTweaker;
 import com.mujmajnkraft.bstweaker.effects.actions.*;
+import net.minecraft.potion.Potion;
 
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -24,69 +25,175 @@ public class ActionParser {
         "(\\w+)\\.(\\w+)\\s*([+\\-*/])=\\s*(.+)"
     );
     
+    // Numeric literal: 3, -1.5, .25
+    private static final Pattern NUMBER_PATTERN = Pattern.compile(
+        "-?(\\d+(\\.\\d*)?|\\.\\d+)"
+    );
+    
+    // Quoted string literal: 'poison' or "poison"
+    private static final Pattern STRING_PATTERN = Pattern.compile(
+        "'[^'\\\\]*'|\"[^\"\\\\]*\""
+    );
+    
     /** Parse action string. */
     public static EventAction parse(String actionStr) {
-        actionStr = actionStr.trim();
-        
-        // Try compound assignment
-        Matcher opAssign = OP_ASSIGN_PATTERN.matcher(actionStr);
-        if (opAssign.matches()) {
-            String target = opAssign.group(1);
-            String field = opAssign.group(2);
-            String op = opAssign.group(3);
-            String value = opAssign.group(4).trim();
-            return new FieldOperationAction(target, field, op, value);
+        EventAction action = tryParse(actionStr);
+        if (action == null) {
+            BSTweaker.LOG.warn("Unknown action format: " + actionStr);
+            return ctx -> {
+            }; // No-op
         }
-        
-        // Try assignment
-        Matcher assign = ASSIGN_PATTERN.matcher(actionStr);
-        if (assign.matches()) {
-            String target = assign.group(1);
-            String field = assign.group(2);
-            String value = assign.group(3).trim();
-            return new FieldSetAction(target, field, value);
+        return action;
+    }
+    
+    /**
+     * Try to parse action string into a native action.
+     * Returns null if the action needs the script engine (unknown shape, non-literal args, ...).
+     */
+    public static EventAction tryParse(String actionStr) {
+        actionStr = actionStr.trim();
+        if (actionStr.endsWith(";")) {
+            actionStr = actionStr.substring(0, actionStr.length() - 1).trim();
         }
         
-        // Try method call
-        Matcher method = METHOD_PATTERN.matcher(actionStr);
-        if (method.matches()) {
-            String target = method.group(1);
-            String methodName = method.group(2);
-            String args = method.group(3);
-            return parseMethodCall(target, methodName, args);
+        try {
+            // Try compound assignment
+            Matcher opAssign = OP_ASSIGN_PATTERN.matcher(actionStr);
+            if (opAssign.matches()) {
+                String target = opAssign.group(1);
+                String field = opAssign.group(2);
+                String op = opAssign.group(3);
+                String value = opAssign.group(4).trim();
+                if (!"event".equals(target) || !"amount".equals(field) || !isNumber(value))
+                    return null;
+                return new FieldOperationAction(target, field, op, value);
+            }
+            
+            // Try assignment
+            Matcher assign = ASSIGN_PATTERN.matcher(actionStr);
+            if (assign.matches()) {
+                String target = assign.group(1);
+                String field = assign.group(2);
+                String value = assign.group(3).trim();
+                if (!isSettableField(target, field) || !isNumber(value))
+                    return null;
+                return new FieldSetAction(target, field, value);
+            }
+            
+            // Try method call
+            Matcher method = METHOD_PATTERN.matcher(actionStr);
+            if (method.matches()) {
+                String target = method.group(1);
+                String methodName = method.group(2);
+                String args = method.group(3);
+                return parseMethodCall(target, methodName, args);
+            }
+        } catch (RuntimeException e) {
+            // Bad literal (e.g. ignite(2.5)) - leave it to the script engine
+            return null;
         }
         
-        BSTweaker.LOG.warn("Unknown action format: " + actionStr);
-        return ctx -> {
-        }; // No-op
+        return null;
     }
     
-    /** Parse method call. */
+    /** Parse method call (null if not supported natively). */
     private static EventAction parseMethodCall(String target, String method, String args) {
-        String[] argParts = args.isEmpty() ? new String[0] : args.split(",");
-        for (int i = 0; i < argParts.length; i++) {
-            argParts[i] = argParts[i].trim().replace("'", "").replace("\"", "");
+        String[] rawArgs = args.trim().isEmpty() ? new String[0] : args.split(",");
+        String[] argParts = new String[rawArgs.length];
+        for (int i = 0; i < rawArgs.length; i++) {
+            rawArgs[i] = rawArgs[i].trim();
+            argParts[i] = rawArgs[i].replace("'", "").replace("\"", "");
         }
         
+        if ("event".equals(target)) {
+            switch (method) {
+                case "cancel":
+                    return rawArgs.length == 0 ? new CancelEventAction() : null;
+                case "setAmount":
+                    return matches(rawArgs, "n") ? new FieldSetAction(target, "amount", argParts[0]) : null;
+                default:
+                    return null;
+            }
+        }
+        
+        if (!"self".equals(target) && !"victim".equals(target))
+            return null;
+        
         switch (method) {
             case "suppressPotion":
-                return new SuppressPotionAction(target, argParts);
+                return matchesPrefix(rawArgs, 1, "s", "n")
+                        ? new SuppressPotionAction(target, potion(argParts[0]), intArg(argParts, 1, 0))
+                        : null;
             case "addPotion":
             case "applyPotion":
-                return new ApplyPotionAction(target, argParts);
+                // Native-only names: duration and amplifier are optional
+                return matchesPrefix(rawArgs, 1, "s", "n", "n")
+                        ? new ApplyPotionAction(target, potion(argParts[0]), intArg(argParts, 1, 100), intArg(argParts, 2, 0))
+                        : null;
+            case "addPotionEffect":
+                return matches(rawArgs, "s", "n", "n")
+                        ? new ApplyPotionAction(target, potion(argParts[0]), intArg(argParts, 1, 100), intArg(argParts, 2, 0))
+                        : null;
             case "removePotion":
-                return new RemovePotionAction(target, argParts);
+            case "removePotionEffect":
+                return matches(rawArgs, "s") ? new RemovePotionAction(target, potion(argParts[0])) : null;
             case "heal":
-                return new HealAction(target, argParts);
+                return matches(rawArgs, "n") ? new HealAction(target, argParts) : null;
             case "damage":
-                return new DamageAction(target, argParts);
+                return matchesPrefix(rawArgs, 0, "n") ? new DamageAction(target, argParts) : null;
             case "ignite":
-                return new IgniteAction(target, argParts);
-            case "cancel":
-                return new CancelEventAction();
+                return matchesPrefix(rawArgs, 0, "n") ? new IgniteAction(target, argParts) : null;
+            case "setFire":
+                // Script API takes seconds, IgniteAction takes ticks
+                return matches(rawArgs, "n") ? new IgniteAction(target, Integer.parseInt(argParts[0]) * 20) : null;
+            case "setHurtResistantTime":
+                return matches(rawArgs, "n") ? new FieldSetAction(target, "hurtResistantTime", argParts[0]) : null;
+            case "explodeDamage":
+                return matchesPrefix(rawArgs, 1, "n", "n") ? new AreaAction(target, false, argParts) : null;
+            case "pulseHeal":
+                return matchesPrefix(rawArgs, 1, "n", "n") ? new AreaAction(target, true, argParts) : null;
             default:
-                BSTweaker.LOG.warn("Unknown method: " + method);
-                return ctx -> {};
+                return null;
         }
     }
+    
+    /** Check literal argument shapes: "n" = number, "s" = quoted string. */
+    private static boolean matches(String[] args, String... shape) {
+        return matchesPrefix(args, shape.length, shape);
+    }
+    
+    /** Check literal argument shapes, allowing trailing arguments to be omitted. */
+    private static boolean matchesPrefix(String[] args, int minArgs, String... shape) {
+        if (args.length < minArgs || args.length > shape.length)
+            return false;
+        for (int i = 0; i < args.length; i++) {
+            boolean ok = "n".equals(shape[i]) ? isNumber(args[i]) : STRING_PATTERN.matcher(args[i]).matches();
+            if (!ok)
+                return false;
+        }
+        return true;
+    }
+    
+    /** Resolve a potion id at parse time (unknown ids become no-op actions, as before). */
+    private static Potion potion(String id) {
+        Potion potion = PotionHandles.get(id);
+        if (potion == null)
+            BSTweaker.LOG.warn("Unknown potion: " + id);
+        return potion;
+    }
+    
+    private static int intArg(String[] args, int index, int defaultValue) {
+        return args.length > index ? Integer.parseInt(args[index]) : defaultValue;
+    }
+    
+    private static boolean isNumber(String value) {
+        return NUMBER_PATTERN.matcher(value).matches();
+    }
+    
+    /** Fields that both the native actions and the script API can set. */
+    private static boolean isSettableField(String target, String field) {
+        if ("event".equals(target))
+            return "amount".equals(field);
+        return ("self".equals(target) || "victim".equals(target)) && "hurtResistantTime".equals(field);
+    }
 }
@@ -0,0 +1,63 @@
+package com.mujmajnkraft.bstweaker.effects;
+
+import net.minecraft.entity.EntityLivingBase;
+import net.minecraft.util.DamageSource;
+
+import javax.annotation.Nullable;
+import java.util.List;
+
+/**
+ * Area actions - explodeDamage and pulseHeal around an entity.
+ *
+ * Targets come from AreaQueryCache, so procs in the same area and tick share
+ * one entity scan. Area damage fires the usual hurt events (weapon onHit
+ * effects included, like a sweep); an area action started from inside another
+ * one is skipped, so chains can't cascade.
+ */
+public class AreaEffects {
+
+    private static boolean active = false;
+
+    /** Explosion damage to everything within radius of the center, except the attacker and its team. */
+    public static void explodeDamage(EntityLivingBase center, @Nullable EntityLivingBase attacker, double radius,
+            float amount) {
+        if (center == null || serverThreadOnly(center) || active)
+            return;
+        List<EntityLivingBase> targets = AreaQueryCache.query(center, radius);
+        active = true;
+        try {
+            DamageSource source = DamageSource.causeExplosionDamage(attacker);
+            for (EntityLivingBase target : targets) {
+                if (attacker != null && (target == attacker || target.isOnSameTeam(attacker)))
+                    continue;
+                target.attackEntityFrom(source, amount);
+            }
+        } finally {
+            active = false;
+            AreaQueryCache.release(targets);
+        }
+    }
+
+    /** Heal the center and its team within radius. */
+    public static void pulseHeal(EntityLivingBase center, double radius, float amount) {
+        if (center == null || serverThreadOnly(center) || active)
+            return;
+        List<EntityLivingBase> targets = AreaQueryCache.query(center, radius);
+        active = true;
+        try {
+            center.heal(amount);
+            for (EntityLivingBase target : targets) {
+                if (target != center && (target.isOnSameTeam(center) || center.isOnSameTeam(target)))
+                    target.heal(amount);
+            }
+        } finally {
+            active = false;
+            AreaQueryCache.release(targets);
+        }
+    }
+
+    /** Client copies are skipped - the reentrancy flag and query cache belong to the server thread. */
+    private static boolean serverThreadOnly(EntityLivingBase center) {
+        return center.world != null && center.world.isRemote;
+    }
+}
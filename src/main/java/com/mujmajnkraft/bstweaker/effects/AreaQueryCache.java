@@ -0,0 +1,185 @@
+package com.mujmajnkraft.bstweaker.effects;
+
+import com.mujmajnkraft.bstweaker.Reference;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.EntityLivingBase;
+import net.minecraft.util.math.AxisAlignedBB;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.IChunkProvider;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Per-tick entity queries for area actions.
+ *
+ * The living entities around a chunk section (16x16x16) are scanned once per
+ * tick and radius bucket (powers of two up to MAX_RADIUS): the section bounds
+ * grown by the bucket radius cover every query centered in that section. Each
+ * query then only filters those candidates by exact distance, so many procs in
+ * one area share a single world scan. Positions are those of the tick's first
+ * scan. Lists come from a pool - hand query results back with release().
+ * Server side only; client worlds and world-less stand-ins get no entities.
+ */
+@Mod.EventBusSubscriber(modid = Reference.MOD_ID)
+public class AreaQueryCache {
+
+    /** Largest radius a query covers (larger ones are clamped). */
+    public static final double MAX_RADIUS = 32;
+    private static final int MAX_POOLED = 64;
+    private static final List<EntityLivingBase> NONE = Collections.emptyList();
+
+    /** Scanned candidates of one section and radius bucket. */
+    private static class Entry {
+        World world;
+        int x, y, z, bucket;
+        List<EntityLivingBase> candidates;
+    }
+
+    // Open-addressing table of this tick's entries (no removals - cleared as a whole)
+    private static Entry[] table = new Entry[64];
+    private static int mask = 63;
+    private static final List<Entry> used = new ArrayList<>();
+    private static final Deque<Entry> freeEntries = new ArrayDeque<>();
+    private static final Deque<List<EntityLivingBase>> pool = new ArrayDeque<>();
+    private static long cachedTick = -1;
+
+    /** Living entities within radius of the center's position (center included) - release() the list. */
+    public static List<EntityLivingBase> query(Entity center, double radius) {
+        World world = center.world;
+        if (world == null || world.isRemote || !(radius > 0))
+            return NONE;
+
+        radius = Math.min(radius, MAX_RADIUS);
+        long tick = EffectTickHandler.getTick();
+        if (tick != cachedTick) {
+            clear();
+            cachedTick = tick;
+        }
+
+        int bucket = 0;
+        while ((1 << bucket) < radius) {
+            bucket++;
+        }
+        Entry entry = get(world, MathHelper.floor(center.posX) >> 4, MathHelper.floor(center.posY) >> 4,
+                MathHelper.floor(center.posZ) >> 4, bucket);
+
+        List<EntityLivingBase> result = acquire();
+        double rangeSq = radius * radius;
+        for (EntityLivingBase e : entry.candidates) {
+            if (e.isEntityAlive() && e.getDistanceSq(center.posX, center.posY, center.posZ) <= rangeSq)
+                result.add(e);
+        }
+        return result;
+    }
+
+    /** Return a list from query() to the pool. */
+    public static void release(List<EntityLivingBase> list) {
+        if (list == NONE)
+            return;
+        list.clear();
+        if (pool.size() < MAX_POOLED)
+            pool.push(list);
+    }
+
+    private static List<EntityLivingBase> acquire() {
+        List<EntityLivingBase> list = pool.poll();
+        return list != null ? list : new ArrayList<>();
+    }
+
+    /** This tick's entry for the section and bucket, scanning the world on a miss. */
+    private static Entry get(World world, int x, int y, int z, int bucket) {
+        int index = hash(x, y, z, bucket) & mask;
+        for (Entry e = table[index]; e != null; e = table[index]) {
+            if (e.world == world && e.x == x && e.y == y && e.z == z && e.bucket == bucket)
+                return e;
+            index = (index + 1) & mask;
+        }
+
+        Entry entry = freeEntries.poll();
+        if (entry == null)
+            entry = new Entry();
+        entry.world = world;
+        entry.x = x;
+        entry.y = y;
+        entry.z = z;
+        entry.bucket = bucket;
+        entry.candidates = acquire();
+        scan(entry);
+
+        table[index] = entry;
+        used.add(entry);
+        if (used.size() * 2 > table.length)
+            resize(table.length * 2);
+        return entry;
+    }
+
+    /** Collect the living entities whose boxes touch the section grown by the bucket radius. */
+    private static void scan(Entry entry) {
+        double grow = 1 << entry.bucket;
+        double minX = (entry.x << 4) - grow, minY = (entry.y << 4) - grow, minZ = (entry.z << 4) - grow;
+        double maxX = (entry.x << 4) + 16 + grow, maxY = (entry.y << 4) + 16 + grow, maxZ = (entry.z << 4) + 16 + grow;
+        AxisAlignedBB box = new AxisAlignedBB(minX, minY, minZ, maxX, maxY, maxZ);
+
+        // Same chunk range as World.getEntitiesWithinAABB, without loading chunks
+        int minChunkX = MathHelper.floor((minX - World.MAX_ENTITY_RADIUS) / 16.0D);
+        int maxChunkX = MathHelper.floor((maxX + World.MAX_ENTITY_RADIUS) / 16.0D);
+        int minChunkZ = MathHelper.floor((minZ - World.MAX_ENTITY_RADIUS) / 16.0D);
+        int maxChunkZ = MathHelper.floor((maxZ + World.MAX_ENTITY_RADIUS) / 16.0D);
+        IChunkProvider provider = entry.world.getChunkProvider();
+        for (int cx = minChunkX; cx <= maxChunkX; cx++) {
+            for (int cz = minChunkZ; cz <= maxChunkZ; cz++) {
+                Chunk chunk = provider.getLoadedChunk(cx, cz);
+                if (chunk != null)
+                    chunk.getEntitiesOfTypeWithinAABB(EntityLivingBase.class, box, entry.candidates, null);
+            }
+        }
+    }
+
+    private static int hash(int x, int y, int z, int bucket) {
+        int h = ((x * 31 + z) * 31 + y) * 8 + bucket;
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static void resize(int capacity) {
+        table = new Entry[capacity];
+        mask = capacity - 1;
+        for (Entry e : used) {
+            int index = hash(e.x, e.y, e.z, e.bucket) & mask;
+            while (table[index] != null) {
+                index = (index + 1) & mask;
+            }
+            table[index] = e;
+        }
+    }
+
+    /** Drop all entries, returning their lists to the pool. */
+    private static void clear() {
+        if (used.isEmpty())
+            return;
+        for (Entry e : used) {
+            release(e.candidates);
+            e.candidates = null;
+            e.world = null;
+            freeEntries.push(e);
+        }
+        used.clear();
+        Arrays.fill(table, null);
+    }
+
+    @SubscribeEvent
+    public static void onWorldUnload(WorldEvent.Unload event) {
+        if (!event.getWorld().isRemote)
+            clear();
+    }
+}
@@ -0,0 +1,326 @@
+package com.mujmajnkraft.bstweaker.effects;
+
+import com.mujmajnkraft.bstweaker.BSTweaker;
+import com.mujmajnkraft.bstweaker.config.BSTweakerConfig;
+import com.mujmajnkraft.bstweaker.effects.actions.ScriptAction;
+import com.mujmajnkraft.bstweaker.effects.compiler.ActionCompiler;
+import com.mujmajnkraft.bstweaker.effects.compiler.GeneratedAction;
+import net.minecraft.entity.EntityLivingBase;
+import net.minecraft.item.Item;
+
+import javax.script.CompiledScript;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compiled weapon event - condition plus hybrid action pipeline.
+ * Events written in the typed script subset become one generated class
+ * (ActionCompiler). Otherwise actions ActionParser understands run as native
+ * EventActions, the rest are grouped into precompiled script chunks and run
+ * in order. The "when" condition is checked first, so a failed check costs
+ * no action work.
+ * Events that need the script engine before it is ready are compiled on the
+ * engine's init thread and do nothing until then.
+ */
+public class CompiledWeaponEvent {
+
+    public final WeaponEvent event;
+    private EventCondition condition; // null = always
+    private EventAction[] actions;
+    private boolean usesScript;
+    private final ScriptProfiler.Stats stats; // null for client copies
+    private volatile boolean resolved; // false while waiting for the script engine
+
+    // Circuit breaker state (see ScriptBudget)
+    int strikes;
+    long lastStrikeTick;
+    long disabledUntilTick;
+    boolean tripReported;
+
+    boolean warmedUp; // see ScriptWarmup
+
+    private CompiledWeaponEvent(WeaponEvent event, EventCondition condition, EventAction[] actions,
+            boolean usesScript, ScriptProfiler.Stats stats) {
+        this.event = event;
+        this.condition = condition;
+        this.actions = actions;
+        this.usesScript = usesScript;
+        this.stats = stats;
+        this.resolved = true;
+    }
+
+    /** Placeholder for an event waiting for the script engine. */
+    private CompiledWeaponEvent(WeaponEvent event, ScriptProfiler.Stats stats) {
+        this.event = event;
+        this.actions = new EventAction[0];
+        this.usesScript = true;
+        this.stats = stats;
+    }
+
+    /** Take over the deferred compile result (null = failed, event stays a no-op). */
+    private void resolve(String name, CompiledWeaponEvent compiled) {
+        if (compiled != null) {
+            condition = compiled.condition;
+            actions = compiled.actions;
+            usesScript = compiled.usesScript;
+        } else {
+            BSTweaker.LOG.warn("Script failed to compile, event disabled: " + name);
+        }
+        resolved = true; // publishes the fields above to the server thread
+    }
+
+    /** Execute with error handling and time budget, recording timings while the profiler is on. */
+    public void run(EventContext ctx) {
+        if (!ScriptBudget.canRun(this))
+            return;
+
+        long start = System.nanoTime();
+        boolean success = true;
+        ctx.scriptFailed = false;
+        try {
+            execute(ctx);
+        } catch (Exception e) {
+            success = false;
+            BSTweaker.LOG.error("Script execution error: " + e.getMessage());
+        }
+        success &= !ctx.scriptFailed;
+        long nanos = System.nanoTime() - start;
+
+        if (ScriptProfiler.isEnabled())
+            stats.record(nanos, success);
+        ScriptBudget.record(this, nanos, success);
+    }
+
+    /** Run all actions if the condition passes. */
+    public void execute(EventContext ctx) {
+        if (!resolved)
+            return;
+        if (condition != null && !condition.test(ctx))
+            return;
+        runActions(ctx);
+    }
+
+    private void runActions(EventContext ctx) {
+        for (EventAction action : actions) {
+            action.execute(ctx);
+        }
+    }
+
+    /**
+     * Run a batched onHit event for all victims hit this tick. The budget check,
+     * profiler sample and script scope are shared by the batch, and a condition
+     * that doesn't use the victim is tested once, for the first hit.
+     */
+    public void runBatch(EntityLivingBase attacker, Item weapon, List<EntityLivingBase> victims) {
+        if (victims.isEmpty() || !ScriptBudget.canRun(this))
+            return;
+
+        long start = System.nanoTime();
+        boolean success = true;
+        boolean perBatch = event.hasBatchCondition();
+        EventContext ctx = null;
+        try {
+            for (int i = 0; i < victims.size(); i++) {
+                EventContext next = new EventContext(attacker, victims.get(i), weapon, null);
+                if (ctx != null)
+                    ScriptEngine_.handOver(ctx, next);
+                ctx = next;
+                ctx.scriptFailed = false;
+                try {
+                    if (!perBatch) {
+                        execute(ctx);
+                    } else if (i > 0 || resolved && (condition == null || condition.test(ctx))) {
+                        runActions(ctx);
+                    } else {
+                        success &= !ctx.scriptFailed;
+                        break;
+                    }
+                } catch (Exception e) {
+                    success = false;
+                    BSTweaker.LOG.error("Script execution error: " + e.getMessage());
+                    if (perBatch && i == 0)
+                        break; // Condition outcome unknown
+                }
+                success &= !ctx.scriptFailed;
+            }
+        } finally {
+            if (ctx != null)
+                ScriptEngine_.release(ctx);
+        }
+        long nanos = System.nanoTime() - start;
+
+        if (ScriptProfiler.isEnabled())
+            stats.record(nanos, success);
+        ScriptBudget.record(this, nanos, victims.size(), success);
+    }
+
+    /** Clear circuit breaker state (event reused across a reload). */
+    void resetBudget() {
+        strikes = 0;
+        lastStrikeTick = 0;
+        disabledUntilTick = 0;
+        tripReported = false;
+    }
+
+    /** whenHeld interval in ticks. */
+    public int getPeriod() {
+        return event.period > 0 ? event.period : BSTweakerConfig.heldEffectPeriod;
+    }
+
+    /** Whether any action falls back to the script engine. */
+    public boolean usesScript() {
+        return usesScript;
+    }
+
+    /** Number of actions that run natively. */
+    public int getNativeCount() {
+        int count = 0;
+        for (EventAction action : actions) {
+            if (action instanceof GeneratedAction)
+                return event.actions.size();
+            if (!(action instanceof ScriptAction))
+                count++;
+        }
+        return count;
+    }
+
+    /** Profiler stats of this event. */
+    public ScriptProfiler.Stats getStats() {
+        return stats;
+    }
+
+    /** Compile weapon event (null if it cannot run at all). */
+    public static CompiledWeaponEvent compile(String weaponId, WeaponEvent we) {
+        return compile(weaponId, we, ScriptProfiler.getStats(weaponId, we.eventType));
+    }
+
+    /**
+     * Compile the client thread's own copy of an event (null if it cannot run at all).
+     * Only execute() it: it isn't profiled or budgeted, and its scripts run in the client
+     * thread's own script globals.
+     */
+    public static CompiledWeaponEvent compileClient(String weaponId, WeaponEvent we) {
+        return compile(weaponId, we, null);
+    }
+
+    private static CompiledWeaponEvent compile(String weaponId, WeaponEvent we, ScriptProfiler.Stats stats) {
+        String name = weaponId + ":" + we.eventType;
+
+        // Whole event (condition included) as one generated class
+        if (BSTweakerConfig.compileScripts && !we.hasBatchCondition()) {
+            EventAction generated = ActionCompiler.compile(name, we.condition, we.getScript());
+            if (generated != null)
+                return new CompiledWeaponEvent(we, null, new EventAction[] { generated }, false, stats);
+        }
+
+        // Batched events test such a condition once per batch, so it stays out of the generated class
+        if (BSTweakerConfig.compileScripts && we.hasBatchCondition()) {
+            EventCondition condition = ConditionCompiler.compile(we.condition);
+            EventAction generated = condition != null ? ActionCompiler.compile(name, null, we.getScript()) : null;
+            if (generated != null)
+                return new CompiledWeaponEvent(we, condition, new EventAction[] { generated }, false, stats);
+        }
+
+        if (!ScriptEngine_.isReady() && needsScriptEngine(we)) {
+            CompiledWeaponEvent deferred = new CompiledWeaponEvent(we, stats);
+            ScriptEngine_.whenReady(() -> deferred.resolve(name, compileWithEngine(name, we, stats)));
+            return deferred;
+        }
+        return compileWithEngine(name, we, stats);
+    }
+
+    /** Whether the condition or any action has no native form. */
+    private static boolean needsScriptEngine(WeaponEvent we) {
+        if (!we.condition.trim().isEmpty() && ConditionCompiler.compile(we.condition) == null)
+            return true;
+        for (String line : we.actions) {
+            if (ActionParser.tryParse(line) == null)
+                return true;
+        }
+        return false;
+    }
+
+    /** Compile the native/script hybrid (script parts need the engine to be ready). */
+    private static CompiledWeaponEvent compileWithEngine(String name, WeaponEvent we, ScriptProfiler.Stats stats) {
+        boolean engineAvailable = ScriptEngine_.isAvailable();
+        EventCondition condition = null;
+        boolean conditionUsesScript = false;
+
+        if (!we.condition.trim().isEmpty()) {
+            condition = ConditionCompiler.compile(we.condition);
+            if (condition == null) {
+                // Not supported natively - evaluate as a JavaScript expression
+                CompiledScript script = ScriptEngine_.compile("(" + we.condition + ")");
+                if (script == null) {
+                    BSTweaker.LOG.warn("Invalid condition for event " + we.eventType + ": " + we.condition);
+                    return null;
+                }
+                condition = new ScriptCondition(script);
+                conditionUsesScript = true;
+            }
+        }
+
+        // Condition needs the script engine, but the actions may still compile
+        if (BSTweakerConfig.compileScripts && conditionUsesScript) {
+            EventAction generated = ActionCompiler.compile(name, null, we.getScript());
+            if (generated != null)
+                return new CompiledWeaponEvent(we, condition, new EventAction[] { generated }, true, stats);
+        }
+
+        List<EventAction> pipeline = new ArrayList<>();
+        StringBuilder chunk = new StringBuilder();
+        int scriptLines = 0;
+        boolean chunksCompiled = true;
+
+        for (String line : we.actions) {
+            EventAction action = ActionParser.tryParse(line);
+            if (action == null) {
+                chunk.append(line).append("\n");
+                scriptLines++;
+                continue;
+            }
+            chunksCompiled &= flushChunk(pipeline, chunk, engineAvailable, stats);
+            pipeline.add(action);
+        }
+        chunksCompiled &= flushChunk(pipeline, chunk, engineAvailable, stats);
+
+        if (scriptLines > 0 && !engineAvailable) {
+            BSTweaker.LOG.warn("Script engine unavailable, skipping " + scriptLines + " script action(s) of event: "
+                    + we.eventType);
+        }
+
+        if (!chunksCompiled) {
+            // Splitting broke a multi-line statement (e.g. an if block) - run the whole event as one script
+            CompiledScript whole = ScriptEngine_.compile(we.getScript());
+            if (whole == null) {
+                return null;
+            }
+            return new CompiledWeaponEvent(we, condition, new EventAction[] { new ScriptAction(whole, stats) }, true,
+                    stats);
+        }
+
+        if (pipeline.isEmpty()) {
+            return null;
+        }
+        return new CompiledWeaponEvent(we, condition, pipeline.toArray(new EventAction[0]),
+                conditionUsesScript || (scriptLines > 0 && engineAvailable), stats);
+    }
+
+    /** Compile pending script lines into one chunk (false if it does not compile on its own). */
+    private static boolean flushChunk(List<EventAction> pipeline, StringBuilder chunk, boolean engineAvailable,
+            ScriptProfiler.Stats stats) {
+        if (chunk.length() == 0)
+            return true;
+
+        String source = chunk.toString();
+        chunk.setLength(0);
+        if (!engineAvailable)
+            return true;
+
+        CompiledScript compiled = ScriptEngine_.compileQuietly(source);
+        if (compiled == null)
+            return false;
+        pipeline.add(new ScriptAction(compiled, stats));
+        return true;
+    }
+}
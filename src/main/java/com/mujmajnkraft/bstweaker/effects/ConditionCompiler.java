@@ -0,0 +1,425 @@
+package com.mujmajnkraft.bstweaker.effects;
+
+import net.minecraft.entity.EntityLivingBase;
+import net.minecraft.potion.Potion;
+import net.minecraftforge.event.entity.living.LivingHurtEvent;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Condition compiler - turns "when" expressions into allocation-free predicates.
+ *
+ * Supported:
+ * - Literals: numbers, true, false, null
+ * - Operators: || && ! == != < <= > >= + - * / % and parentheses
+ * - self / victim: health, maxHealth, healthRatio, hurtResistantTime, isBurning,
+ *   isInWater, isWet, isSneaking, onGround, hasPotion('id'), == null, != null
+ *   (JS getter style like getHealth() and isBurning() also accepted)
+ * - event.amount / event.getAmount()
+ * - random(), Math.random(), chance(p)
+ *
+ * Returns null for anything else so the caller can fall back to the script engine.
+ */
+public class ConditionCompiler {
+
+    /** Numeric sub-expression. */
+    private interface NumExpr {
+        double eval(EventContext ctx);
+    }
+
+    /** Entity accessor (self or victim). */
+    private interface EntityRef {
+        EntityLivingBase get(EventContext ctx);
+    }
+
+    private static final EntityRef SELF = ctx -> ctx.self;
+    private static final EntityRef VICTIM = ctx -> ctx.victim;
+
+    /** Compile condition (null if unsupported or invalid). */
+    public static EventCondition compile(String condition) {
+        if (condition == null || condition.trim().isEmpty())
+            return null;
+
+        try {
+            Parser parser = new Parser(ScriptTokenizer.tokenize(condition));
+            Expr expr = parser.parseOr();
+            if (!parser.atEnd() || expr.bool == null)
+                return null;
+            return expr.bool;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // ========== Typed expression ==========
+
+    /** Compiled sub-expression - exactly one of num / bool / entity is set (entity only for null checks). */
+    private static class Expr {
+        final NumExpr num;
+        final EventCondition bool;
+        final EntityRef entity;
+        final boolean isNull;
+
+        private Expr(NumExpr num, EventCondition bool, EntityRef entity, boolean isNull) {
+            this.num = num;
+            this.bool = bool;
+            this.entity = entity;
+            this.isNull = isNull;
+        }
+
+        static Expr num(NumExpr num) {
+            return new Expr(num, null, null, false);
+        }
+
+        static Expr bool(EventCondition bool) {
+            return new Expr(null, bool, null, false);
+        }
+
+        static Expr entity(EntityRef entity) {
+            return new Expr(null, null, entity, false);
+        }
+
+        static Expr nullLiteral() {
+            return new Expr(null, null, null, true);
+        }
+
+        NumExpr requireNum() {
+            if (num == null)
+                throw new IllegalArgumentException("Number expected");
+            return num;
+        }
+
+        EventCondition requireBool() {
+            if (bool == null)
+                throw new IllegalArgumentException("Boolean expected");
+            return bool;
+        }
+    }
+
+    // ========== Parser ==========
+
+    private static class Parser {
+        private final List<String> tokens;
+        private int pos = 0;
+
+        Parser(List<String> tokens) {
+            this.tokens = tokens;
+        }
+
+        boolean atEnd() {
+            return pos >= tokens.size();
+        }
+
+        private String peek() {
+            return atEnd() ? "" : tokens.get(pos);
+        }
+
+        private boolean accept(String token) {
+            if (peek().equals(token)) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(String token) {
+            if (!accept(token))
+                throw new IllegalArgumentException("Expected " + token);
+        }
+
+        private String next() {
+            if (atEnd())
+                throw new IllegalArgumentException("Unexpected end");
+            return tokens.get(pos++);
+        }
+
+        Expr parseOr() {
+            Expr left = parseAnd();
+            while (accept("||")) {
+                EventCondition a = left.requireBool();
+                EventCondition b = parseAnd().requireBool();
+                left = Expr.bool(ctx -> a.test(ctx) || b.test(ctx));
+            }
+            return left;
+        }
+
+        Expr parseAnd() {
+            Expr left = parseNot();
+            while (accept("&&")) {
+                EventCondition a = left.requireBool();
+                EventCondition b = parseNot().requireBool();
+                left = Expr.bool(ctx -> a.test(ctx) && b.test(ctx));
+            }
+            return left;
+        }
+
+        Expr parseNot() {
+            if (accept("!")) {
+                EventCondition a = parseNot().requireBool();
+                return Expr.bool(ctx -> !a.test(ctx));
+            }
+            return parseComparison();
+        }
+
+        Expr parseComparison() {
+            Expr left = parseSum();
+            String op = peek();
+            switch (op) {
+                case "==":
+                case "===":
+                case "!=":
+                case "!==":
+                    pos++;
+                    boolean negate = op.startsWith("!");
+                    return equality(left, parseSum(), negate);
+                case "<":
+                case "<=":
+                case ">":
+                case ">=":
+                    pos++;
+                    return relational(left.requireNum(), parseSum().requireNum(), op);
+                default:
+                    return left;
+            }
+        }
+
+        private Expr equality(Expr left, Expr right, boolean negate) {
+            // Entity null checks: victim != null
+            if (left.isNull && right.entity != null)
+                return nullCheck(right.entity, negate);
+            if (right.isNull && left.entity != null)
+                return nullCheck(left.entity, negate);
+
+            if (left.num != null && right.num != null) {
+                NumExpr a = left.num;
+                NumExpr b = right.num;
+                return negate ? Expr.bool(ctx -> a.eval(ctx) != b.eval(ctx))
+                        : Expr.bool(ctx -> a.eval(ctx) == b.eval(ctx));
+            }
+            if (left.bool != null && right.bool != null) {
+                EventCondition a = left.bool;
+                EventCondition b = right.bool;
+                return negate ? Expr.bool(ctx -> a.test(ctx) != b.test(ctx))
+                        : Expr.bool(ctx -> a.test(ctx) == b.test(ctx));
+            }
+            throw new IllegalArgumentException("Incompatible operands");
+        }
+
+        private Expr nullCheck(EntityRef ref, boolean negate) {
+            return negate ? Expr.bool(ctx -> ref.get(ctx) != null) : Expr.bool(ctx -> ref.get(ctx) == null);
+        }
+
+        private Expr relational(NumExpr a, NumExpr b, String op) {
+            switch (op) {
+                case "<":
+                    return Expr.bool(ctx -> a.eval(ctx) < b.eval(ctx));
+                case "<=":
+                    return Expr.bool(ctx -> a.eval(ctx) <= b.eval(ctx));
+                case ">":
+                    return Expr.bool(ctx -> a.eval(ctx) > b.eval(ctx));
+                default:
+                    return Expr.bool(ctx -> a.eval(ctx) >= b.eval(ctx));
+            }
+        }
+
+        Expr parseSum() {
+            Expr left = parseProduct();
+            while (peek().equals("+") || peek().equals("-")) {
+                boolean plus = next().equals("+");
+                NumExpr a = left.requireNum();
+                NumExpr b = parseProduct().requireNum();
+                left = Expr.num(plus ? ctx -> a.eval(ctx) + b.eval(ctx) : ctx -> a.eval(ctx) - b.eval(ctx));
+            }
+            return left;
+        }
+
+        Expr parseProduct() {
+            Expr left = parseUnary();
+            while (peek().equals("*") || peek().equals("/") || peek().equals("%")) {
+                String op = next();
+                NumExpr a = left.requireNum();
+                NumExpr b = parseUnary().requireNum();
+                if (op.equals("*"))
+                    left = Expr.num(ctx -> a.eval(ctx) * b.eval(ctx));
+                else if (op.equals("/"))
+                    left = Expr.num(ctx -> a.eval(ctx) / b.eval(ctx));
+                else
+                    left = Expr.num(ctx -> a.eval(ctx) % b.eval(ctx));
+            }
+            return left;
+        }
+
+        Expr parseUnary() {
+            if (accept("-")) {
+                NumExpr a = parseUnary().requireNum();
+                return Expr.num(ctx -> -a.eval(ctx));
+            }
+            return parsePrimary();
+        }
+
+        Expr parsePrimary() {
+            String token = next();
+
+            if (token.equals("(")) {
+                Expr inner = parseOr();
+                expect(")");
+                return inner;
+            }
+            if (ScriptTokenizer.isNumber(token)) {
+                double value = Double.parseDouble(token);
+                return Expr.num(ctx -> value);
+            }
+            switch (token) {
+                case "true":
+                    return Expr.bool(ctx -> true);
+                case "false":
+                    return Expr.bool(ctx -> false);
+                case "null":
+                    return Expr.nullLiteral();
+                case "random":
+                    expect("(");
+                    expect(")");
+                    return Expr.num(ctx -> ThreadLocalRandom.current().nextDouble());
+                case "chance": {
+                    expect("(");
+                    NumExpr p = parseSum().requireNum();
+                    expect(")");
+                    return Expr.bool(ctx -> ThreadLocalRandom.current().nextDouble() < p.eval(ctx));
+                }
+                case "Math":
+                    expect(".");
+                    if (!next().equals("random"))
+                        throw new IllegalArgumentException("Unsupported Math function");
+                    expect("(");
+                    expect(")");
+                    return Expr.num(ctx -> ThreadLocalRandom.current().nextDouble());
+                case "self":
+                    return parseEntityMember(SELF);
+                case "victim":
+                    return parseEntityMember(VICTIM);
+                case "event":
+                    return parseEventMember();
+                default:
+                    throw new IllegalArgumentException("Unknown identifier: " + token);
+            }
+        }
+
+        /** Parse ".member" or ".member()" after self/victim. */
+        private Expr parseEntityMember(EntityRef ref) {
+            if (!accept("."))
+                return Expr.entity(ref);
+
+            String member = next();
+            String arg = null;
+            if (accept("(")) {
+                if (!peek().equals(")"))
+                    arg = parseStringLiteral();
+                expect(")");
+            }
+
+            switch (member) {
+                case "health":
+                case "getHealth":
+                    return Expr.num(ctx -> {
+                        EntityLivingBase e = ref.get(ctx);
+                        return e != null ? e.getHealth() : 0;
+                    });
+                case "maxHealth":
+                case "getMaxHealth":
+                    return Expr.num(ctx -> {
+                        EntityLivingBase e = ref.get(ctx);
+                        return e != null ? e.getMaxHealth() : 0;
+                    });
+                case "healthRatio":
+                case "getHealthRatio":
+                    return Expr.num(ctx -> {
+                        EntityLivingBase e = ref.get(ctx);
+                        return e != null && e.getMaxHealth() > 0 ? e.getHealth() / e.getMaxHealth() : 0;
+                    });
+                case "hurtResistantTime":
+                case "getHurtResistantTime":
+                    return Expr.num(ctx -> {
+                        EntityLivingBase e = ref.get(ctx);
+                        return e != null ? e.hurtResistantTime : 0;
+                    });
+                case "isBurning":
+                case "burning":
+                    return Expr.bool(ctx -> {
+                        EntityLivingBase e = ref.get(ctx);
+                        return e != null && e.isBurning();
+                    });
+                case "isInWater":
+                case "inWater":
+                    return Expr.bool(ctx -> {
+                        EntityLivingBase e = ref.get(ctx);
+                        return e != null && e.isInWater();
+                    });
+                case "isWet":
+                case "wet":
+                    return Expr.bool(ctx -> {
+                        EntityLivingBase e = ref.get(ctx);
+                        return e != null && e.isWet();
+                    });
+                case "isSneaking":
+                case "sneaking":
+                    return Expr.bool(ctx -> {
+                        EntityLivingBase e = ref.get(ctx);
+                        return e != null && e.isSneaking();
+                    });
+                case "onGround":
+                case "isOnGround":
+                    return Expr.bool(ctx -> {
+                        EntityLivingBase e = ref.get(ctx);
+                        return e != null && e.onGround;
+                    });
+                case "hasPotion":
+                case "hasPotionEffect":
+                    if (arg == null)
+                        throw new IllegalArgumentException("Potion id expected");
+                    return Expr.bool(new PotionCheck(ref, PotionHandles.get(arg)));
+                default:
+                    throw new IllegalArgumentException("Unknown member: " + member);
+            }
+        }
+
+        /** Parse ".amount" or ".getAmount()" after event. */
+        private Expr parseEventMember() {
+            expect(".");
+            String member = next();
+            if (accept("("))
+                expect(")");
+            if (!member.equals("amount") && !member.equals("getAmount"))
+                throw new IllegalArgumentException("Unknown event member: " + member);
+            return Expr.num(ctx -> ctx.forgeEvent instanceof LivingHurtEvent
+                    ? ((LivingHurtEvent) ctx.forgeEvent).getAmount()
+                    : 0);
+        }
+
+        private String parseStringLiteral() {
+            String token = next();
+            if (!ScriptTokenizer.isString(token))
+                throw new IllegalArgumentException("String expected");
+            return token.substring(1, token.length() - 1);
+        }
+    }
+
+    /** Potion presence check against a resolved handle. */
+    private static class PotionCheck implements EventCondition {
+        private final EntityRef ref;
+        private final Potion potion;
+
+        PotionCheck(EntityRef ref, Potion potion) {
+            this.ref = ref;
+            this.potion = potion;
+        }
+
+        @Override
+        public boolean test(EventContext ctx) {
+            if (potion == null)
+                return false;
+            EntityLivingBase e = ref.get(ctx);
+            return e != null && e.isPotionActive(potion);
+        }
+    }
+}
@@ -1,154 +1,108 @@
 package com.mujmajnkraft.bstweaker.effects;
 
-import com.google.gson.JsonObject;
-import com.mujmajnkraft.bstweaker.BSTweaker;
 import com.mujmajnkraft.bstweaker.Reference;
-import com.mujmajnkraft.bstweaker.util.TweakerWeaponInjector;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.EntityLivingBase;
 import net.minecraft.item.Item;
-import net.minecraft.item.ItemStack;
-import net.minecraft.util.ResourceLocation;
 import net.minecraftforge.event.entity.living.LivingDeathEvent;
-import net.minecraftforge.event.entity.living.LivingEvent;
 import net.minecraftforge.event.entity.living.LivingHurtEvent;
 import net.minecraftforge.fml.common.Mod;
 import net.minecraftforge.fml.common.eventhandler.EventPriority;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
-/** Effect event handler - listens to Forge events and executes scripts. */
+/**
+ * Effect event handler - listens to Forge events and executes scripts (whenHeld: see HeldWeaponTracker).
+ * Server side only; client-side whenHeld events run in ClientEffectHandler.
+ */
 @Mod.EventBusSubscriber(modid = Reference.MOD_ID)
 public class EffectEventHandler {
 
-    // Weapon registry name -> event list
-    private static final Map<ResourceLocation, List<WeaponEvent>> weaponEffectsCache = new HashMap<>();
-
     /** Register weapon effects. */
     public static void registerWeaponEffects(Item weapon, List<WeaponEvent> events) {
-        ResourceLocation regName = weapon.getRegistryName();
-        weaponEffectsCache.put(regName, events);
+        ScriptCache.compile(weapon, events);
+    }
+
+    /** Clear all weapon effects and compiled scripts (before reload). */
+    public static void clearWeaponEffects() {
+        ScriptCache.clear();
+        ScriptBudget.reset();
+        EquipmentSnapshot.clear();
+    }
+
+    /** Start a reload - events re-registered unchanged keep their compiled form. */
+    public static void beginReload() {
+        ScriptCache.beginReload();
+        ScriptBudget.reset();
+    }
+
+    /** Finish a reload (drops events of weapons that were not re-registered). */
+    public static void endReload() {
+        ScriptCache.endReload();
+        EquipmentSnapshot.clear();
+    }
+
+    /** Cancel a reload that failed midway (keeps the events from before it). */
+    public static void abortReload() {
+        ScriptCache.abortReload();
+        EquipmentSnapshot.clear();
     }
 
     /** LivingHurtEvent - handles onHit (attack) and onHurt (being attacked). */
     @SubscribeEvent(priority = EventPriority.NORMAL)
     public static void onLivingHurt(LivingHurtEvent event) {
         EntityLivingBase victim = event.getEntityLiving();
+        if (victim.world == null || victim.world.isRemote)
+            return;
         Entity source = event.getSource().getTrueSource();
-
-        // onHit: attacker holds weapon
-        if (source instanceof EntityLivingBase) {
-            EntityLivingBase attacker = (EntityLivingBase) source;
-            ItemStack mainHand = attacker.getHeldItemMainhand();
-            if (!mainHand.isEmpty()) {
-                Item weapon = mainHand.getItem();
-                ResourceLocation regName = weapon.getRegistryName();
-                List<WeaponEvent> effects = weaponEffectsCache.get(regName);
-
-                if (effects != null) {
-                    for (WeaponEvent we : effects) {
-                        if ("LivingHurtEvent".equals(we.eventType) || "onHit".equals(we.eventType)) {
-                            EventContext ctx = new EventContext(attacker, victim, weapon, event);
-                            executeScripts(we, ctx);
-                        }
-                    }
-                }
+        EntityLivingBase attacker = (source instanceof EntityLivingBase) ? (EntityLivingBase) source : null;
+
+        // onHit: attacker holds weapon (batched events run at tick end, see HitBatcher)
+        if (attacker != null) {
+            EquipmentSnapshot held = EquipmentSnapshot.of(attacker);
+            if (held.has(EventTrigger.HIT)) {
+                EventContext ctx = new EventContext(attacker, victim, held.getMainItem(), event);
+                executeScripts(held.getMainEffects().get(EventTrigger.HIT), ctx);
             }
+            if (held.hasBatchedHits())
+                HitBatcher.add(attacker, held.getMainItem(), held.getMainEffects().getBatchedHits(), victim);
         }
 
-        // onHurt: victim holds weapon
-        ItemStack victimMainHand = victim.getHeldItemMainhand();
-        if (!victimMainHand.isEmpty()) {
-            Item weapon = victimMainHand.getItem();
-            ResourceLocation regName = weapon.getRegistryName();
-            List<WeaponEvent> effects = weaponEffectsCache.get(regName);
-
-            if (effects != null) {
-                for (WeaponEvent we : effects) {
-                    if ("onHurt".equals(we.eventType)) {
-                        // self = victim, victim = attacker (if exists)
-                        EntityLivingBase attacker = (source instanceof EntityLivingBase) ? (EntityLivingBase) source
-                                : null;
-                        EventContext ctx = new EventContext(victim, attacker, weapon, event);
-                        executeScripts(we, ctx);
-                    }
-                }
-            }
+        // onHurt: victim holds weapon (self = victim, victim = attacker if exists)
+        EquipmentSnapshot held = EquipmentSnapshot.of(victim);
+        if (held.has(EventTrigger.HURT)) {
+            EventContext ctx = new EventContext(victim, attacker, held.getMainItem(), event);
+            executeScripts(held.getMainEffects().get(EventTrigger.HURT), ctx);
         }
     }
 
     /** LivingDeathEvent - death event (kill). */
     @SubscribeEvent(priority = EventPriority.NORMAL)
     public static void onLivingDeath(LivingDeathEvent event) {
+        if (event.getEntityLiving().world == null || event.getEntityLiving().world.isRemote)
+            return;
         Entity source = event.getSource().getTrueSource();
         if (!(source instanceof EntityLivingBase))
             return;
 
         EntityLivingBase attacker = (EntityLivingBase) source;
-        ItemStack mainHand = attacker.getHeldItemMainhand();
-        if (mainHand.isEmpty())
-            return;
-
-        Item weapon = mainHand.getItem();
-        ResourceLocation regName = weapon.getRegistryName();
-        List<WeaponEvent> effects = weaponEffectsCache.get(regName);
-        if (effects == null)
-            return;
-
-        EntityLivingBase victim = event.getEntityLiving();
-
-        for (WeaponEvent we : effects) {
-            if ("LivingDeathEvent".equals(we.eventType) || "onKill".equals(we.eventType)) {
-                EventContext ctx = new EventContext(attacker, victim, weapon, event);
-                executeScripts(we, ctx);
-            }
-        }
-    }
-
-    /** LivingUpdateEvent - entity update (tick). */
-    @SubscribeEvent(priority = EventPriority.NORMAL)
-    public static void onLivingUpdate(LivingEvent.LivingUpdateEvent event) {
-        EntityLivingBase entity = event.getEntityLiving();
-
-        // Throttle: check every 5 ticks
-        if (entity.ticksExisted % 5 != 0)
+        EquipmentSnapshot held = EquipmentSnapshot.of(attacker);
+        if (!held.has(EventTrigger.KILL))
             return;
 
-        ItemStack mainHand = entity.getHeldItemMainhand();
-        if (mainHand.isEmpty())
-            return;
-
-        Item weapon = mainHand.getItem();
-        ResourceLocation regName = weapon.getRegistryName();
-        List<WeaponEvent> effects = weaponEffectsCache.get(regName);
-        if (effects == null)
-            return;
-
-        for (WeaponEvent we : effects) {
-            if ("LivingUpdateEvent".equals(we.eventType) || "whenHeld".equals(we.eventType)) {
-                EventContext ctx = new EventContext(entity, null, weapon, event);
-                executeScripts(we, ctx);
-            }
-        }
+        EventContext ctx = new EventContext(attacker, event.getEntityLiving(), held.getMainItem(), event);
+        executeScripts(held.getMainEffects().get(EventTrigger.KILL), ctx);
     }
 
-    /** Execute scripts - merge all actions into one script. */
-    private static void executeScripts(WeaponEvent we, EventContext ctx) {
-        // Merge all actions into full script
-        StringBuilder sb = new StringBuilder();
-        for (String action : we.actions) {
-            sb.append(action).append("\n");
-        }
-        String fullScript = sb.toString();
-
+    /** Execute scripts - runs each event's precompiled action pipeline. */
+    private static void executeScripts(CompiledWeaponEvent[] events, EventContext ctx) {
         try {
-            ScriptEngine_.execute(fullScript, ctx);
-        } catch (Exception e) {
-            BSTweaker.LOG.error("Script execution error: " + e.getMessage());
+            for (CompiledWeaponEvent compiled : events) {
+                compiled.run(ctx);
+            }
+        } finally {
+            ScriptEngine_.release(ctx);
         }
     }
 }
@@ -0,0 +1,283 @@
+package com.mujmajnkraft.bstweaker.effects;
+
+import com.mujmajnkraft.bstweaker.BSTweaker;
+import com.mujmajnkraft.bstweaker.Reference;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.EntityLivingBase;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraftforge.event.entity.EntityTravelToDimensionEvent;
+import net.minecraftforge.event.entity.living.LivingDeathEvent;
+import net.minecraftforge.event.world.ChunkEvent;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.common.eventhandler.EventPriority;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.PlayerEvent;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-entity effect state - combo counters, proc cooldowns, stacks.
+ *
+ * Open-addressing table keyed by entity id, one row of 64-bit slots per
+ * entity; named keys map to slot indexes (resolved once by compiled actions).
+ * Slots hold int, float or long values without boxing - use one type per key.
+ * Rows are dropped when the entity dies, unloads or changes dimension.
+ * Server side only; client copies and world-less warm-up stand-ins keep no state.
+ */
+@Mod.EventBusSubscriber(modid = Reference.MOD_ID)
+public class EffectStateStore {
+
+    private static final int MAX_KEYS = 64;
+    private static final int FREE = Integer.MIN_VALUE;
+
+    // Key name -> slot (registered from compile and script threads)
+    private static final Map<String, Integer> keys = new ConcurrentHashMap<>();
+    private static boolean keyLimitWarned = false;
+
+    private static int[] ids = newIds(64);
+    private static long[] values = new long[64 * 4];
+    private static int stride = 4; // slots per row
+    private static int mask = 63;
+    private static int size = 0;
+
+    // ========== Keys ==========
+
+    /** Slot of the named key, registering it (-1 if the key limit is reached). */
+    public static int key(String name) {
+        Integer slot = keys.get(name);
+        if (slot != null)
+            return slot;
+        synchronized (keys) {
+            slot = keys.get(name);
+            if (slot != null)
+                return slot;
+            if (keys.size() >= MAX_KEYS) {
+                if (!keyLimitWarned) {
+                    keyLimitWarned = true;
+                    BSTweaker.LOG.warn("Effect state key limit (" + MAX_KEYS + ") reached, ignoring '" + name + "'");
+                }
+                return -1;
+            }
+            slot = keys.size();
+            keys.put(name, slot);
+            return slot;
+        }
+    }
+
+    // ========== Typed access ==========
+
+    public static int getInt(EntityLivingBase e, int key) {
+        return (int) get(e, key);
+    }
+
+    public static void setInt(EntityLivingBase e, int key, int value) {
+        set(e, key, value);
+    }
+
+    /** Add to an int slot, returning the new value. */
+    public static int addInt(EntityLivingBase e, int key, int delta) {
+        int value = getInt(e, key) + delta;
+        set(e, key, value);
+        return value;
+    }
+
+    public static float getFloat(EntityLivingBase e, int key) {
+        return Float.intBitsToFloat((int) get(e, key));
+    }
+
+    public static void setFloat(EntityLivingBase e, int key, float value) {
+        set(e, key, Float.floatToRawIntBits(value));
+    }
+
+    /** Add to a float slot, returning the new value. */
+    public static float addFloat(EntityLivingBase e, int key, float delta) {
+        float value = getFloat(e, key) + delta;
+        setFloat(e, key, value);
+        return value;
+    }
+
+    public static long getLong(EntityLivingBase e, int key) {
+        return get(e, key);
+    }
+
+    public static void setLong(EntityLivingBase e, int key, long value) {
+        set(e, key, value);
+    }
+
+    /** Start a cooldown if it is over - true when the caller may proc (slot holds the ready tick). */
+    public static boolean cooldown(EntityLivingBase e, int key, int ticks) {
+        if (!server(e) || key < 0)
+            return false;
+        long now = EffectTickHandler.getTick();
+        if (get(e, key) > now)
+            return false;
+        set(e, key, now + ticks);
+        return true;
+    }
+
+    /** Drop all state of the entity. */
+    public static void clear(Entity e) {
+        if (size > 0 && server(e))
+            remove(e.getEntityId());
+    }
+
+    /** Number of entities with state. */
+    public static int size() {
+        return size;
+    }
+
+    // ========== Table ==========
+
+    private static long get(EntityLivingBase e, int key) {
+        if (!server(e) || key < 0 || key >= stride || size == 0)
+            return 0;
+        int row = find(e.getEntityId());
+        return row >= 0 ? values[row * stride + key] : 0;
+    }
+
+    private static void set(EntityLivingBase e, int key, long bits) {
+        if (key < 0 || !server(e))
+            return;
+        if (key >= stride)
+            widen(key + 1);
+        int id = e.getEntityId();
+        int row = find(id);
+        if (row < 0) {
+            if ((size + 1) * 2 > ids.length)
+                resize(ids.length * 2);
+            row = slot(id);
+            while (ids[row] != FREE) {
+                row = (row + 1) & mask;
+            }
+            ids[row] = id;
+            size++;
+        }
+        values[row * stride + key] = bits;
+    }
+
+    private static int find(int id) {
+        int row = slot(id);
+        while (true) {
+            int current = ids[row];
+            if (current == id)
+                return row;
+            if (current == FREE)
+                return -1;
+            row = (row + 1) & mask;
+        }
+    }
+
+    /** Remove a row, shifting later rows of the probe chain back (no tombstones). */
+    private static void remove(int id) {
+        int hole = find(id);
+        if (hole < 0)
+            return;
+        int row = hole;
+        while (true) {
+            row = (row + 1) & mask;
+            int current = ids[row];
+            if (current == FREE)
+                break;
+            int home = slot(current);
+            // Rows whose home lies cyclically in (hole, row] stay where they are
+            if (hole <= row ? hole < home && home <= row : hole < home || home <= row)
+                continue;
+            ids[hole] = current;
+            System.arraycopy(values, row * stride, values, hole * stride, stride);
+            hole = row;
+        }
+        ids[hole] = FREE;
+        Arrays.fill(values, hole * stride, hole * stride + stride, 0L);
+        size--;
+    }
+
+    /** Whether the entity is a real server-side one (client copies and stand-ins keep no state). */
+    private static boolean server(Entity e) {
+        return e != null && e.world != null && !e.world.isRemote;
+    }
+
+    private static int slot(int id) {
+        int h = id * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private static void resize(int capacity) {
+        int[] oldIds = ids;
+        long[] oldValues = values;
+        ids = newIds(capacity);
+        values = new long[capacity * stride];
+        mask = capacity - 1;
+        for (int i = 0; i < oldIds.length; i++) {
+            if (oldIds[i] == FREE)
+                continue;
+            int row = slot(oldIds[i]);
+            while (ids[row] != FREE) {
+                row = (row + 1) & mask;
+            }
+            ids[row] = oldIds[i];
+            System.arraycopy(oldValues, i * stride, values, row * stride, stride);
+        }
+    }
+
+    /** Grow rows to hold at least the given number of slots. */
+    private static void widen(int slots) {
+        int newStride = stride;
+        while (newStride < slots) {
+            newStride *= 2;
+        }
+        long[] widened = new long[ids.length * newStride];
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] != FREE)
+                System.arraycopy(values, i * stride, widened, i * newStride, stride);
+        }
+        values = widened;
+        stride = newStride;
+    }
+
+    private static int[] newIds(int capacity) {
+        int[] array = new int[capacity];
+        Arrays.fill(array, FREE);
+        return array;
+    }
+
+    // ========== Eviction ==========
+
+    @SubscribeEvent(priority = EventPriority.LOWEST)
+    public static void onLivingDeath(LivingDeathEvent event) {
+        clear(event.getEntityLiving());
+    }
+
+    @SubscribeEvent(priority = EventPriority.LOWEST)
+    public static void onDimensionChange(EntityTravelToDimensionEvent event) {
+        clear(event.getEntity());
+    }
+
+    @SubscribeEvent
+    public static void onLogout(PlayerEvent.PlayerLoggedOutEvent event) {
+        clear(event.player);
+    }
+
+    @SubscribeEvent
+    public static void onChunkUnload(ChunkEvent.Unload event) {
+        Chunk chunk = event.getChunk();
+        if (size == 0 || chunk.getWorld().isRemote)
+            return;
+        for (Iterable<Entity> entities : chunk.getEntityLists()) {
+            for (Entity entity : entities) {
+                clear(entity);
+            }
+        }
+    }
+
+    @SubscribeEvent
+    public static void onWorldUnload(WorldEvent.Unload event) {
+        if (size == 0 || event.getWorld().isRemote)
+            return;
+        for (Entity entity : event.getWorld().loadedEntityList) {
+            clear(entity);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.mujmajnkraft.bstweaker.effects;
+
+import com.mujmajnkraft.bstweaker.Reference;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+
+/** Server tick driver for effect subsystems - single place that owns the tick counter. */
+@Mod.EventBusSubscriber(modid = Reference.MOD_ID)
+public class EffectTickHandler {
+
+    private static long tick = 0;
+
+    /** Current server tick (counts since startup). */
+    public static long getTick() {
+        return tick;
+    }
+
+    @SubscribeEvent
+    public static void onServerTick(TickEvent.ServerTickEvent event) {
+        if (event.phase == TickEvent.Phase.START) {
+            tick++;
+            ScriptBudget.onTickStart();
+            EquipmentSnapshot.clear();
+            return;
+        }
+
+        HeldWeaponTracker.tick(tick);
+        TimerWheel.tick();
+        HitBatcher.flush();
+        PotionClampHandler.flush();
+        PotionBuffer.flush();
+    }
+}
@@ -0,0 +1,156 @@
+package com.mujmajnkraft.bstweaker.effects;
+
+import net.minecraft.entity.EntityLivingBase;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NBTTagCompound;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * What an entity holds, resolved once per tick and shared by every handler.
+ *
+ * Built lazily on first use in a server tick: the held stacks, their compiled
+ * effects, a bitmask of the main hand's triggers and the weapon NBT values the
+ * mixins read. Later lookups in the same tick only check that the same stacks
+ * are still held (a swap or a broken weapon rebuilds it). Client-side entities
+ * get an uncached snapshot of the client view - the cache is server thread only.
+ */
+public class EquipmentSnapshot {
+
+    private static final String TAG_BSTWEAKER = "bstweaker";
+    private static final String TAG_BACKSTAB_MULTIPLIER = "backstabMultiplier";
+
+    private static final Map<EntityLivingBase, EquipmentSnapshot> current = new IdentityHashMap<>();
+    private static final Deque<EquipmentSnapshot> pool = new ArrayDeque<>();
+
+    private static final int BATCHED_HITS = 1 << EventTrigger.count();
+
+    private ItemStack mainHand;
+    private ItemStack offHand;
+    private Item mainItem; // null if empty
+    private Item offItem;
+    private WeaponEffects mainEffects; // null if the weapon has none
+    private WeaponEffects offEffects;
+    private int triggers; // bit per EventTrigger with main hand events, plus BATCHED_HITS
+    private float mainBackstab; // NaN = not set
+    private float offBackstab;
+
+    /** Snapshot of the entity's equipment for this tick. */
+    public static EquipmentSnapshot of(EntityLivingBase entity) {
+        ItemStack main = entity.getHeldItemMainhand();
+        ItemStack off = entity.getHeldItemOffhand();
+        if (entity.world == null || entity.world.isRemote)
+            return new EquipmentSnapshot().fill(main, off, true);
+
+        EquipmentSnapshot snapshot = current.get(entity);
+        if (snapshot != null && snapshot.holds(main, off))
+            return snapshot;
+        if (snapshot == null) {
+            snapshot = pool.poll();
+            if (snapshot == null)
+                snapshot = new EquipmentSnapshot();
+            current.put(entity, snapshot);
+        }
+        return snapshot.fill(main, off, false);
+    }
+
+    /** Drop all snapshots (server tick start, after a reload). */
+    static void clear() {
+        if (current.isEmpty())
+            return;
+        for (EquipmentSnapshot snapshot : current.values()) {
+            snapshot.mainHand = null;
+            snapshot.offHand = null;
+            pool.push(snapshot);
+        }
+        current.clear();
+    }
+
+    public Item getMainItem() {
+        return mainItem;
+    }
+
+    public Item getOffItem() {
+        return offItem;
+    }
+
+    /** Compiled effects of the main hand weapon (null if none). */
+    public WeaponEffects getMainEffects() {
+        return mainEffects;
+    }
+
+    /** Compiled effects of the off hand weapon (null if none). */
+    public WeaponEffects getOffEffects() {
+        return offEffects;
+    }
+
+    /** Whether the main hand weapon has events for the trigger (server side; client view on the client). */
+    public boolean has(EventTrigger trigger) {
+        return (triggers & (1 << trigger.ordinal())) != 0;
+    }
+
+    /** Whether the main hand weapon has batched onHit events. */
+    public boolean hasBatchedHits() {
+        return (triggers & BATCHED_HITS) != 0;
+    }
+
+    /** Custom backstab multiplier of the hand's weapon (NaN if not set). */
+    public float getBackstabMultiplier(boolean offhand) {
+        return offhand ? offBackstab : mainBackstab;
+    }
+
+    /** Potion clamp rules of the main hand weapon (null if none). */
+    public PotionClamp getClamp() {
+        return mainEffects != null ? mainEffects.getClamp() : null;
+    }
+
+    private boolean holds(ItemStack main, ItemStack off) {
+        // getItem() is AIR once a stack breaks, so a broken weapon fails this too
+        return main == mainHand && off == offHand && item(main) == mainItem && item(off) == offItem;
+    }
+
+    private EquipmentSnapshot fill(ItemStack main, ItemStack off, boolean client) {
+        mainHand = main;
+        offHand = off;
+        mainItem = item(main);
+        offItem = item(off);
+        mainEffects = effects(mainItem, client);
+        offEffects = effects(offItem, client);
+        mainBackstab = backstab(main);
+        offBackstab = backstab(off);
+
+        triggers = 0;
+        if (mainEffects != null) {
+            for (EventTrigger trigger : EventTrigger.values()) {
+                CompiledWeaponEvent[] events = client ? mainEffects.getClient(trigger) : mainEffects.get(trigger);
+                if (events.length > 0)
+                    triggers |= 1 << trigger.ordinal();
+            }
+            if (!client && mainEffects.getBatchedHits().length > 0)
+                triggers |= BATCHED_HITS;
+        }
+        return this;
+    }
+
+    private static Item item(ItemStack stack) {
+        return stack.isEmpty() ? null : stack.getItem();
+    }
+
+    private static WeaponEffects effects(Item item, boolean client) {
+        if (item == null)
+            return null;
+        return client ? ScriptCache.getClientView().get(item) : ScriptCache.get(item);
+    }
+
+    private static float backstab(ItemStack stack) {
+        NBTTagCompound tag = stack.isEmpty() ? null : stack.getTagCompound();
+        if (tag == null || !tag.hasKey(TAG_BSTWEAKER))
+            return Float.NaN;
+        NBTTagCompound bstweaker = tag.getCompoundTag(TAG_BSTWEAKER);
+        return bstweaker.hasKey(TAG_BACKSTAB_MULTIPLIER) ? bstweaker.getFloat(TAG_BACKSTAB_MULTIPLIER) : Float.NaN;
+    }
+}
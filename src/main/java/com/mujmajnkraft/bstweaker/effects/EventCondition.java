@@ -0,0 +1,8 @@
+package com.mujmajnkraft.bstweaker.effects;
+
+/** Condition interface - compiled "when" expression. */
+public interface EventCondition {
+
+    /** Test the condition. */
+    boolean test(EventContext context);
+}
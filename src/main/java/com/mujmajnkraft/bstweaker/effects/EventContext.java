@@ -11,6 +11,10 @@ public class EventContext {
     public final Item weaponItem; // Trigger weapon
     public final Object forgeEvent; // Original Forge event
     
+    ScriptEngine_.ScriptScope scope; // Pooled script scope, taken by the first script chunk
+    boolean scriptFailed; // Set when a script chunk or condition throws during the current event
+    boolean warmup; // Synthetic warm-up run - scripts log nothing
+    
     public EventContext(EntityLivingBase self, EntityLivingBase victim, Item weaponItem, Object forgeEvent) {
         this.self = self;
         this.victim = victim;
@@ -21,8 +25,7 @@ public class EventContext {
     /** Check if holding weapon in main hand. */
     public boolean isHoldingInMainHand() {
         if (self == null) return false;
-        Item mainHand = self.getHeldItemMainhand().getItem();
-        return mainHand == weaponItem;
+        return EquipmentSnapshot.of(self).getMainItem() == weaponItem;
     }
     
     /** Check if self is attacker. */
@@ -0,0 +1,33 @@
+package com.mujmajnkraft.bstweaker.effects;
+
+/** Logical side a weapon event runs on ("side" in scripts.json, server by default). */
+public enum EventSide {
+    SERVER("server"),
+    CLIENT("client"), // Cosmetic whenHeld effects only
+    BOTH("both");
+
+    private final String name;
+
+    EventSide(String name) {
+        this.name = name;
+    }
+
+    /** Parse config side (empty = server, null if unknown). */
+    public static EventSide fromName(String name) {
+        if (name == null || name.isEmpty())
+            return SERVER;
+        for (EventSide side : values()) {
+            if (side.name.equalsIgnoreCase(name))
+                return side;
+        }
+        return null;
+    }
+
+    public boolean onServer() {
+        return this != CLIENT;
+    }
+
+    public boolean onClient() {
+        return this != SERVER;
+    }
+}
@@ -0,0 +1,33 @@
+package com.mujmajnkraft.bstweaker.effects;
+
+/** Event trigger - normalized event type, used as dispatch table index. */
+public enum EventTrigger {
+    HIT("onHit", "LivingHurtEvent"), // Holder hits something
+    HURT("onHurt"), // Holder is hurt
+    KILL("onKill", "LivingDeathEvent"), // Holder kills something
+    HELD("whenHeld", "LivingUpdateEvent"); // Held in main hand (periodic)
+
+    private static final EventTrigger[] VALUES = values();
+
+    private final String[] names;
+
+    EventTrigger(String... names) {
+        this.names = names;
+    }
+
+    /** Normalize config event type (null if unknown). */
+    public static EventTrigger fromName(String eventType) {
+        for (EventTrigger trigger : VALUES) {
+            for (String name : trigger.names) {
+                if (name.equals(eventType))
+                    return trigger;
+            }
+        }
+        return null;
+    }
+
+    /** Number of triggers (dispatch table size). */
+    public static int count() {
+        return VALUES.length;
+    }
+}
@@ -0,0 +1,150 @@
+package com.mujmajnkraft.bstweaker.effects;
+
+import com.mujmajnkraft.bstweaker.Reference;
+import com.mujmajnkraft.bstweaker.config.BSTweakerConfig;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.EntityLivingBase;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.inventory.EntityEquipmentSlot;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.WorldServer;
+import net.minecraftforge.event.entity.living.LivingEquipmentChangeEvent;
+import net.minecraftforge.fml.common.FMLCommonHandler;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Held weapon tracker - runs whenHeld effects for armed entities only.
+ *
+ * Entities are registered when they equip a scripted weapon (equipment change
+ * events fire on the logical server, including the first tick after loading)
+ * and dropped when they unequip it, die or unload. Each entity runs on its own
+ * phase (entity id) so effects are spread across ticks instead of all firing
+ * on the same one. Entities out of every player's activation range run their
+ * effects less often, or not at all (heldActivationRange / heldInactiveSlowdown).
+ */
+@Mod.EventBusSubscriber(modid = Reference.MOD_ID)
+public class HeldWeaponTracker {
+
+    /** Tracked armed entity. */
+    private static class Tracked {
+        final EntityLivingBase entity;
+        final Item weapon;
+
+        Tracked(EntityLivingBase entity, Item weapon) {
+            this.entity = entity;
+            this.weapon = weapon;
+        }
+    }
+
+    private static final Map<EntityLivingBase, Tracked> tracked = new IdentityHashMap<>();
+    private static final List<Tracked> scratch = new ArrayList<>();
+
+    @SubscribeEvent
+    public static void onEquipmentChange(LivingEquipmentChangeEvent event) {
+        if (event.getSlot() != EntityEquipmentSlot.MAINHAND)
+            return;
+
+        EntityLivingBase entity = event.getEntityLiving();
+        if (entity.world.isRemote)
+            return;
+
+        update(entity, event.getTo());
+    }
+
+    /** Track or untrack entity based on its main hand item. */
+    private static void update(EntityLivingBase entity, ItemStack mainHand) {
+        Item weapon = mainHand.isEmpty() ? null : mainHand.getItem();
+        WeaponEffects effects = weapon != null ? ScriptCache.get(weapon) : null;
+        if (effects != null && effects.get(EventTrigger.HELD).length > 0) {
+            tracked.put(entity, new Tracked(entity, weapon));
+        } else {
+            tracked.remove(entity);
+        }
+    }
+
+    /** Run due whenHeld effects (server tick end). */
+    static void tick(long tick) {
+        if (tracked.isEmpty())
+            return;
+
+        // Iterate a copy: effects may change equipment and re-enter update()
+        scratch.addAll(tracked.values());
+        for (Tracked t : scratch) {
+            EntityLivingBase entity = t.entity;
+            if (entity.isDead || !entity.isAddedToWorld()) {
+                tracked.remove(entity);
+                continue;
+            }
+
+            EquipmentSnapshot held = EquipmentSnapshot.of(entity);
+            if (held.getMainItem() != t.weapon || held.getMainEffects() == null) {
+                tracked.remove(entity);
+                continue;
+            }
+
+            CompiledWeaponEvent[] events = held.getMainEffects().get(EventTrigger.HELD);
+            if (events.length == 0)
+                continue;
+
+            EventContext ctx = null;
+            int slowdown = 0; // 0 = activation not checked yet
+            try {
+                for (CompiledWeaponEvent cwe : events) {
+                    long phase = tick + entity.getEntityId();
+                    if (phase % cwe.getPeriod() != 0)
+                        continue;
+                    // Only checked once an event is due - slowed runs are a subset of the full-rate ones
+                    if (slowdown == 0)
+                        slowdown = activationSlowdown(entity);
+                    if (slowdown < 0 || phase % ((long) cwe.getPeriod() * slowdown) != 0)
+                        continue;
+                    if (ctx == null)
+                        ctx = new EventContext(entity, null, t.weapon, null);
+                    cwe.run(ctx);
+                }
+            } finally {
+                if (ctx != null)
+                    ScriptEngine_.release(ctx);
+            }
+        }
+        scratch.clear();
+    }
+
+    /** Interval multiplier for the entity: 1 near a player, the configured slowdown otherwise (-1 = skip). */
+    private static int activationSlowdown(EntityLivingBase entity) {
+        int range = BSTweakerConfig.heldActivationRange;
+        if (range <= 0 || entity instanceof EntityPlayer || PlayerIndex.isNearPlayer(entity, range))
+            return 1;
+        int slowdown = BSTweakerConfig.heldInactiveSlowdown;
+        return slowdown > 0 ? slowdown : -1;
+    }
+
+    /** Re-scan loaded entities (after reload, when weapons may have gained or lost effects). */
+    public static void rescan() {
+        tracked.clear();
+        MinecraftServer server = FMLCommonHandler.instance().getMinecraftServerInstance();
+        if (server == null)
+            return;
+
+        for (WorldServer world : server.worlds) {
+            for (Entity entity : world.loadedEntityList) {
+                if (entity instanceof EntityLivingBase) {
+                    update((EntityLivingBase) entity, ((EntityLivingBase) entity).getHeldItemMainhand());
+                }
+            }
+        }
+    }
+
+    /** Number of tracked entities. */
+    public static int getTrackedCount() {
+        return tracked.size();
+    }
+}
@@ -0,0 +1,87 @@
+package com.mujmajnkraft.bstweaker.effects;
+
+import net.minecraft.entity.EntityLivingBase;
+import net.minecraft.item.Item;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Same-tick hit batching for onHit events marked "batch": true.
+ *
+ * A sweep or area attack hurts many entities in one tick. Instead of running
+ * the event once per hurt event, hits are queued per attacker and weapon and
+ * each batched event runs once per batch at the end of the tick
+ * (CompiledWeaponEvent.runBatch). Hits caused by a batch itself are queued
+ * for the next tick. Server thread only.
+ */
+public class HitBatcher {
+
+    /** Hits of one attacker with one weapon. */
+    private static class Batch {
+        EntityLivingBase attacker;
+        Item weapon;
+        CompiledWeaponEvent[] events;
+        Batch next; // same attacker, other weapon
+        final List<EntityLivingBase> victims = new ArrayList<>();
+    }
+
+    private static final Map<EntityLivingBase, Batch> byAttacker = new IdentityHashMap<>();
+    private static List<Batch> queued = new ArrayList<>();
+    private static List<Batch> running = new ArrayList<>();
+    private static final Deque<Batch> pool = new ArrayDeque<>();
+
+    /** Queue a hit for the weapon's batched events. */
+    static void add(EntityLivingBase attacker, Item weapon, CompiledWeaponEvent[] events, EntityLivingBase victim) {
+        Batch first = byAttacker.get(attacker);
+        Batch batch = first;
+        while (batch != null && batch.weapon != weapon) {
+            batch = batch.next;
+        }
+        if (batch == null) {
+            batch = pool.poll();
+            if (batch == null)
+                batch = new Batch();
+            batch.attacker = attacker;
+            batch.weapon = weapon;
+            batch.events = events;
+            batch.next = first;
+            byAttacker.put(attacker, batch);
+            queued.add(batch);
+        }
+        if (!batch.victims.contains(victim))
+            batch.victims.add(victim);
+    }
+
+    /** Run the queued batches (server tick end). */
+    static void flush() {
+        if (queued.isEmpty())
+            return;
+        List<Batch> batches = queued;
+        queued = running;
+        running = batches;
+        byAttacker.clear();
+
+        try {
+            for (Batch batch : batches) {
+                for (CompiledWeaponEvent cwe : batch.events) {
+                    cwe.runBatch(batch.attacker, batch.weapon, batch.victims);
+                }
+            }
+        } finally {
+            for (Batch batch : batches) {
+                batch.attacker = null;
+                batch.weapon = null;
+                batch.events = null;
+                batch.next = null;
+                batch.victims.clear();
+                pool.push(batch);
+            }
+            batches.clear();
+        }
+    }
+}
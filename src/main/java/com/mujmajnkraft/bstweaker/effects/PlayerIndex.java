@@ -0,0 +1,111 @@
+package com.mujmajnkraft.bstweaker.effects;
+
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.World;
+import net.minecraft.world.WorldServer;
+import net.minecraftforge.fml.common.FMLCommonHandler;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Player positions per world, sorted by x - rebuilt at most once per server tick,
+ * and only when something asks. A range check scans just the players whose x
+ * lies within the range instead of every player on the server.
+ */
+public class PlayerIndex {
+
+    /** Positions of one world's players (parallel arrays, sorted by x). */
+    private static class Positions {
+        double[] x = new double[8];
+        double[] y = new double[8];
+        double[] z = new double[8];
+        int size;
+
+        void add(double px, double py, double pz) {
+            if (size == x.length) {
+                x = Arrays.copyOf(x, size * 2);
+                y = Arrays.copyOf(y, size * 2);
+                z = Arrays.copyOf(z, size * 2);
+            }
+            // Insertion sort - player counts are small
+            int i = size++;
+            while (i > 0 && x[i - 1] > px) {
+                x[i] = x[i - 1];
+                y[i] = y[i - 1];
+                z[i] = z[i - 1];
+                i--;
+            }
+            x[i] = px;
+            y[i] = py;
+            z[i] = pz;
+        }
+    }
+
+    private static final Map<World, Positions> byWorld = new IdentityHashMap<>();
+    private static final ArrayDeque<Positions> pool = new ArrayDeque<>();
+    private static long builtTick = -1;
+
+    /** Whether any player in the entity's world is within range blocks. */
+    public static boolean isNearPlayer(Entity entity, double range) {
+        long tick = EffectTickHandler.getTick();
+        if (builtTick != tick) {
+            rebuild();
+            builtTick = tick;
+        }
+        Positions p = byWorld.get(entity.world);
+        if (p == null)
+            return false;
+
+        double rangeSq = range * range;
+        double minX = entity.posX - range;
+        double maxX = entity.posX + range;
+        for (int i = lowerBound(p, minX); i < p.size && p.x[i] <= maxX; i++) {
+            double dx = p.x[i] - entity.posX;
+            double dy = p.y[i] - entity.posY;
+            double dz = p.z[i] - entity.posZ;
+            if (dx * dx + dy * dy + dz * dz <= rangeSq)
+                return true;
+        }
+        return false;
+    }
+
+    private static int lowerBound(Positions p, double value) {
+        int lo = 0;
+        int hi = p.size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (p.x[mid] < value)
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+        return lo;
+    }
+
+    private static void rebuild() {
+        for (Positions p : byWorld.values()) {
+            p.size = 0;
+            pool.push(p);
+        }
+        byWorld.clear(); // Don't keep unloaded worlds alive
+
+        MinecraftServer server = FMLCommonHandler.instance().getMinecraftServerInstance();
+        if (server == null)
+            return;
+        for (WorldServer world : server.worlds) {
+            if (world.playerEntities.isEmpty())
+                continue;
+            Positions p = pool.isEmpty() ? new Positions() : pool.pop();
+            for (EntityPlayer player : world.playerEntities) {
+                if (!player.isSpectator())
+                    p.add(player.posX, player.posY, player.posZ);
+            }
+            byWorld.put(world, p);
+        }
+    }
+}
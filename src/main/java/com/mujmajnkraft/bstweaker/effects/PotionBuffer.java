@@ -0,0 +1,162 @@
+package com.mujmajnkraft.bstweaker.effects;
+
+import com.mujmajnkraft.bstweaker.config.BSTweakerConfig;
+import net.minecraft.entity.EntityLivingBase;
+import net.minecraft.potion.Potion;
+import net.minecraft.potion.PotionEffect;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-tick potion change buffer - removes and adds requested by weapon effects are merged
+ * per entity and potion, and only the net change is applied once at the end of the server tick.
+ *
+ * Each applied change fires Forge events and sends an effect packet, so a suppress
+ * (remove + add) repeated by whenHeld every few ticks is collapsed into at most one change,
+ * and re-applying an identical effect that still has plenty of time left is skipped.
+ * Client-side and world-less entities are changed immediately.
+ */
+public class PotionBuffer {
+
+    /** Pending net change for one entity and potion. */
+    private static class Change {
+        EntityLivingBase entity;
+        Potion potion;
+        boolean remove;        // remove the active effect first
+        PotionEffect effect;   // effect to add afterwards (null = remove only)
+        Change next;           // next change of the same entity
+    }
+
+    // Entity (identity) -> first pending change; changes in request order for the flush
+    private static final Map<EntityLivingBase, Change> heads = new IdentityHashMap<>();
+    private static final List<Change> changes = new ArrayList<>();
+    private static final ArrayDeque<Change> pool = new ArrayDeque<>();
+
+    /** Add an effect, clamped to the held weapon's caps (combined like vanilla: the stronger, then longer effect wins). */
+    public static void add(EntityLivingBase entity, PotionEffect effect) {
+        effect = PotionClampHandler.clamp(entity, effect);
+        if (direct(entity)) {
+            entity.addPotionEffect(effect);
+            return;
+        }
+        Change c = change(entity, effect.getPotion());
+        if (c.effect == null || stronger(effect, c.effect))
+            c.effect = effect;
+    }
+
+    /** Remove an effect (cancels adds requested earlier this tick). */
+    public static void remove(EntityLivingBase entity, Potion potion) {
+        if (direct(entity)) {
+            entity.removePotionEffect(potion);
+            return;
+        }
+        Change c = change(entity, potion);
+        c.remove = true;
+        c.effect = null;
+    }
+
+    /** Replace the active effect, e.g. to lower its amplifier. */
+    public static void replace(EntityLivingBase entity, PotionEffect effect) {
+        if (direct(entity)) {
+            entity.removePotionEffect(effect.getPotion());
+            entity.addPotionEffect(effect);
+            return;
+        }
+        Change c = change(entity, effect.getPotion());
+        c.remove = true;
+        c.effect = effect;
+    }
+
+    /** Apply all pending changes (end of server tick). */
+    public static void flush() {
+        if (changes.isEmpty())
+            return;
+        // Applying can trigger events that buffer again - those land in the next tick's batch
+        Change[] batch = changes.toArray(new Change[0]);
+        changes.clear();
+        heads.clear();
+        for (Change c : batch) {
+            try {
+                apply(c);
+            } finally {
+                recycle(c);
+            }
+        }
+    }
+
+    /** Drop pending changes without applying them. */
+    public static void clear() {
+        for (Change c : changes) {
+            recycle(c);
+        }
+        changes.clear();
+        heads.clear();
+    }
+
+    private static void apply(Change c) {
+        EntityLivingBase entity = c.entity;
+        if (entity.isDead)
+            return;
+        PotionEffect active = entity.getActivePotionEffect(c.potion);
+        PotionEffect effect = c.effect;
+
+        if (effect == null) {
+            if (c.remove && active != null)
+                entity.removePotionEffect(c.potion);
+            return;
+        }
+        if (active != null && identical(active, effect)
+                && active.getDuration() > BSTweakerConfig.potionRefreshThreshold)
+            return;
+        // Vanilla only combines upwards - anything else needs the old effect removed first
+        if (c.remove && active != null && !stronger(effect, active))
+            entity.removePotionEffect(c.potion);
+        entity.addPotionEffect(effect);
+    }
+
+    private static Change change(EntityLivingBase entity, Potion potion) {
+        Change head = heads.get(entity);
+        for (Change c = head; c != null; c = c.next) {
+            if (c.potion == potion)
+                return c;
+        }
+        Change c = pool.isEmpty() ? new Change() : pool.pop();
+        c.entity = entity;
+        c.potion = potion;
+        c.next = head;
+        heads.put(entity, c);
+        changes.add(c);
+        return c;
+    }
+
+    /** Return a change to the pool without keeping entities alive. */
+    private static void recycle(Change c) {
+        c.entity = null;
+        c.potion = null;
+        c.effect = null;
+        c.remove = false;
+        c.next = null;
+        pool.push(c);
+    }
+
+    private static boolean direct(EntityLivingBase entity) {
+        return !BSTweakerConfig.bufferPotionChanges || entity.world == null || entity.world.isRemote;
+    }
+
+    /** Whether adding a would overwrite b under vanilla combine rules. */
+    private static boolean stronger(PotionEffect a, PotionEffect b) {
+        if (a.getAmplifier() != b.getAmplifier())
+            return a.getAmplifier() > b.getAmplifier();
+        return a.getDuration() >= b.getDuration() && a.getIsAmbient() == b.getIsAmbient()
+                && a.doesShowParticles() == b.doesShowParticles();
+    }
+
+    private static boolean identical(PotionEffect a, PotionEffect b) {
+        return a.getAmplifier() == b.getAmplifier() && a.getIsAmbient() == b.getIsAmbient()
+                && a.doesShowParticles() == b.doesShowParticles();
+    }
+}
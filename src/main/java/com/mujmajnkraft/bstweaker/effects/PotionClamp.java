@@ -0,0 +1,115 @@
+package com.mujmajnkraft.bstweaker.effects;
+
+import net.minecraft.entity.EntityLivingBase;
+import net.minecraft.potion.Potion;
+import net.minecraft.potion.PotionEffect;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Potion clamp rules of one weapon - amplifier caps for the entity holding it.
+ *
+ * Built from whenHeld events without a condition whose actions are only
+ * self.suppressPotion / self.suppressBadEffects calls. Such events are not
+ * polled; PotionClampHandler clamps effects as they are added instead.
+ */
+public class PotionClamp {
+
+    // self.suppressPotion('id', n)
+    private static final Pattern SUPPRESS_POTION = Pattern.compile(
+        "self\\.suppressPotion\\(\\s*(['\"])([^'\"]+)\\1\\s*,\\s*(\\d+)\\s*\\)"
+    );
+
+    // self.suppressBadEffects(n)
+    private static final Pattern SUPPRESS_BAD = Pattern.compile(
+        "self\\.suppressBadEffects\\(\\s*(\\d+)\\s*\\)"
+    );
+
+    private final Map<Potion, Integer> caps = new IdentityHashMap<>();
+    private int badCap = -1;
+
+    /** Parse clamp rules from an event (null if it is not a plain suppress event). */
+    public static PotionClamp fromEvent(WeaponEvent we) {
+        if (we.trigger != EventTrigger.HELD || (we.condition != null && !we.condition.trim().isEmpty())
+                || we.actions.isEmpty())
+            return null;
+
+        PotionClamp clamp = new PotionClamp();
+        for (String action : we.actions) {
+            for (String statement : action.split(";")) {
+                statement = statement.trim();
+                if (statement.isEmpty())
+                    continue;
+                if (!clamp.parse(statement))
+                    return null;
+            }
+        }
+        return clamp;
+    }
+
+    private boolean parse(String statement) {
+        Matcher m = SUPPRESS_POTION.matcher(statement);
+        if (m.matches()) {
+            Potion potion = PotionHandles.get(m.group(2));
+            if (potion == null)
+                return false; // Leave it to the compiler, which reports unknown potions
+            capPotion(potion, Integer.parseInt(m.group(3)));
+            return true;
+        }
+        m = SUPPRESS_BAD.matcher(statement);
+        if (m.matches()) {
+            int cap = Integer.parseInt(m.group(1));
+            badCap = badCap < 0 ? cap : Math.min(badCap, cap);
+            return true;
+        }
+        return false;
+    }
+
+    private void capPotion(Potion potion, int cap) {
+        Integer current = caps.get(potion);
+        caps.put(potion, current == null ? cap : Math.min(current, cap));
+    }
+
+    /** Merge another weapon event's rules into this one (lowest cap wins). */
+    public PotionClamp merge(PotionClamp other) {
+        for (Map.Entry<Potion, Integer> entry : other.caps.entrySet()) {
+            capPotion(entry.getKey(), entry.getValue());
+        }
+        if (other.badCap >= 0)
+            badCap = badCap < 0 ? other.badCap : Math.min(badCap, other.badCap);
+        return this;
+    }
+
+    /** Max amplifier allowed for the potion (-1 = unlimited). */
+    public int getCap(Potion potion) {
+        Integer cap = caps.get(potion);
+        int result = cap != null ? cap : -1;
+        if (badCap >= 0 && potion.isBadEffect())
+            result = result < 0 ? badCap : Math.min(result, badCap);
+        return result;
+    }
+
+    /** Clamp effects that were already active (e.g. when the weapon is equipped). */
+    public void clampActive(EntityLivingBase entity) {
+        List<PotionEffect> toClamp = new ArrayList<>();
+        for (PotionEffect effect : entity.getActivePotionEffects()) {
+            int cap = getCap(effect.getPotion());
+            if (cap >= 0 && effect.getAmplifier() > cap)
+                toClamp.add(effect);
+        }
+        for (PotionEffect effect : toClamp) {
+            PotionBuffer.replace(entity, clamped(effect, getCap(effect.getPotion())));
+        }
+    }
+
+    /** Copy of the effect with its amplifier lowered to cap. */
+    static PotionEffect clamped(PotionEffect effect, int cap) {
+        return new PotionEffect(effect.getPotion(), effect.getDuration(), cap, effect.getIsAmbient(),
+                effect.doesShowParticles());
+    }
+}
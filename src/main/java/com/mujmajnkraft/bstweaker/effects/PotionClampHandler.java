@@ -0,0 +1,87 @@
+package com.mujmajnkraft.bstweaker.effects;
+
+import com.mujmajnkraft.bstweaker.Reference;
+import net.minecraft.entity.EntityLivingBase;
+import net.minecraft.inventory.EntityEquipmentSlot;
+import net.minecraft.item.ItemStack;
+import net.minecraft.potion.PotionEffect;
+import net.minecraftforge.event.entity.living.LivingEquipmentChangeEvent;
+import net.minecraftforge.event.entity.living.PotionEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * Potion clamp handler - caps effects given to an entity holding a weapon with clamp
+ * rules, instead of polling and re-adding them every few ticks.
+ *
+ * BSTweaker's own potion actions are clamped before they are buffered. Effects added
+ * by anything else are noticed in PotionAddedEvent and lowered at the end of the
+ * server tick, never from inside the event (the effect is still being added then).
+ * No per-tick cost: work happens only when a potion is added or the weapon is equipped.
+ */
+@Mod.EventBusSubscriber(modid = Reference.MOD_ID)
+public class PotionClampHandler {
+
+    // Entities given an effect over their cap this tick (identity, drained every tick)
+    private static final Set<EntityLivingBase> pending = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /** The effect lowered to the cap of the entity's weapon (the effect itself if within it). */
+    static PotionEffect clamp(EntityLivingBase entity, PotionEffect effect) {
+        if (entity.world == null || entity.world.isRemote)
+            return effect;
+        PotionClamp clamp = EquipmentSnapshot.of(entity).getClamp();
+        if (clamp == null)
+            return effect;
+        int cap = clamp.getCap(effect.getPotion());
+        return cap >= 0 && effect.getAmplifier() > cap ? PotionClamp.clamped(effect, cap) : effect;
+    }
+
+    @SubscribeEvent
+    public static void onPotionAdded(PotionEvent.PotionAddedEvent event) {
+        EntityLivingBase entity = event.getEntityLiving();
+        if (entity.world.isRemote)
+            return;
+        if (clamp(entity, event.getPotionEffect()) != event.getPotionEffect())
+            pending.add(entity);
+    }
+
+    /** Lower the effects flagged this tick (end of server tick, before the potion buffer flush). */
+    static void flush() {
+        if (pending.isEmpty())
+            return;
+        EntityLivingBase[] batch = pending.toArray(new EntityLivingBase[0]);
+        pending.clear();
+        for (EntityLivingBase entity : batch) {
+            if (entity.isDead)
+                continue;
+            PotionClamp clamp = EquipmentSnapshot.of(entity).getClamp();
+            if (clamp != null)
+                clamp.clampActive(entity);
+        }
+    }
+
+    @SubscribeEvent
+    public static void onEquipmentChange(LivingEquipmentChangeEvent event) {
+        if (event.getSlot() != EntityEquipmentSlot.MAINHAND)
+            return;
+
+        EntityLivingBase entity = event.getEntityLiving();
+        if (entity.world.isRemote)
+            return;
+
+        PotionClamp clamp = getClamp(event.getTo());
+        if (clamp != null)
+            clamp.clampActive(entity);
+    }
+
+    private static PotionClamp getClamp(ItemStack stack) {
+        if (stack.isEmpty())
+            return null;
+        WeaponEffects effects = ScriptCache.get(stack.getItem());
+        return effects != null ? effects.getClamp() : null;
+    }
+}
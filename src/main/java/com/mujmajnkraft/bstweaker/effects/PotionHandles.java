@@ -0,0 +1,68 @@
+package com.mujmajnkraft.bstweaker.effects;
+
+import com.mujmajnkraft.bstweaker.BSTweaker;
+import net.minecraft.potion.Potion;
+import net.minecraft.util.ResourceLocation;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolved potion handles - id string to Potion, built once after the potion registry is frozen.
+ *
+ * Both the full id ("minecraft:speed") and the vanilla short form ("speed") are interned, so
+ * lookups are a single hash map get. Other spellings are resolved through the registry once
+ * and cached as aliases.
+ */
+public class PotionHandles {
+
+    private static final Object MISSING = new Object();
+
+    // id or alias -> Potion (or MISSING)
+    private static final Map<String, Object> handles = new ConcurrentHashMap<>();
+    private static volatile boolean ready = false;
+
+    /** Intern every registered potion (call once registries are frozen). */
+    public static void build() {
+        handles.clear();
+        for (ResourceLocation key : Potion.REGISTRY.getKeys()) {
+            Potion potion = Potion.REGISTRY.getObject(key);
+            if (potion == null)
+                continue;
+            handles.put(key.toString(), potion);
+            if ("minecraft".equals(key.getNamespace()))
+                handles.put(key.getPath(), potion);
+        }
+        ready = true;
+        BSTweaker.LOG.info("Interned " + handles.size() + " potion handles");
+    }
+
+    /** Whether the registry was frozen and handles are built. */
+    public static boolean isReady() {
+        return ready;
+    }
+
+    /** Resolve a potion id (null if unknown). */
+    public static Potion get(String id) {
+        if (id == null || id.isEmpty())
+            return null;
+        if (!ready)
+            return lookup(id);
+
+        Object handle = handles.get(id);
+        if (handle == null) {
+            Potion potion = lookup(id);
+            handle = potion != null ? potion : MISSING;
+            handles.put(id, handle);
+        }
+        return handle == MISSING ? null : (Potion) handle;
+    }
+
+    private static Potion lookup(String id) {
+        try {
+            return Potion.REGISTRY.getObject(new ResourceLocation(id));
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
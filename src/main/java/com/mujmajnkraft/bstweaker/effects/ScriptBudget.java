@@ -0,0 +1,103 @@
+package com.mujmajnkraft.bstweaker.effects;
+
+import com.mujmajnkraft.bstweaker.BSTweaker;
+import com.mujmajnkraft.bstweaker.config.BSTweakerConfig;
+import com.mujmajnkraft.bstweaker.validation.ConfigValidationErrors;
+import com.mujmajnkraft.bstweaker.validation.ValidationErrorNotifier;
+
+/**
+ * Script time budget and circuit breaker.
+ *
+ * Each event run is timed; runs over the per-invocation budget or that throw
+ * count as strikes. Too many strikes within a minute disable the event for
+ * a cooldown (logged and reported once per event). Script events also share
+ * a per-tick budget (native events neither use nor consume it) - once it is
+ * used up the rest are skipped until the next tick. Runs cannot be interrupted, so a script is only judged after it
+ * returns.
+ */
+public class ScriptBudget {
+
+    private static final long STRIKE_WINDOW_TICKS = 20 * 60;
+
+    private static long tickNanos = 0;
+    private static int skippedThisTick = 0;
+    private static boolean tickBudgetWarned = false;
+
+    /** Reset per tick accounting (server tick start). */
+    static void onTickStart() {
+        if (skippedThisTick > 0 && !tickBudgetWarned) {
+            BSTweaker.LOG.warn("Script tick budget (" + BSTweakerConfig.scriptTickBudgetMicros + "us) exceeded, skipped "
+                    + skippedThisTick + " script event(s); further skips are not logged");
+            tickBudgetWarned = true;
+        }
+        tickNanos = 0;
+        skippedThisTick = 0;
+    }
+
+    /** Whether the event may run now. */
+    static boolean canRun(CompiledWeaponEvent cwe) {
+        long tick = EffectTickHandler.getTick();
+        if (cwe.disabledUntilTick > tick)
+            return false;
+
+        long tickBudget = BSTweakerConfig.scriptTickBudgetMicros * 1000L;
+        if (tickBudget > 0 && cwe.usesScript() && tickNanos > tickBudget) {
+            skippedThisTick++;
+            return false;
+        }
+        return true;
+    }
+
+    /** Account a finished run, tripping the breaker if needed. */
+    static void record(CompiledWeaponEvent cwe, long nanos, boolean success) {
+        record(cwe, nanos, 1, success);
+    }
+
+    /** Account a batch of runs timed together (the invocation budget applies to their average). */
+    static void record(CompiledWeaponEvent cwe, long nanos, int runs, boolean success) {
+        // Only script time counts toward the tick budget, since canRun only holds back script events
+        if (cwe.usesScript())
+            tickNanos += nanos;
+
+        long budget = BSTweakerConfig.scriptInvocationBudgetMicros * 1000L;
+        boolean overBudget = budget > 0 && nanos / Math.max(1, runs) > budget;
+        if (success && !overBudget)
+            return;
+
+        long tick = EffectTickHandler.getTick();
+        if (tick - cwe.lastStrikeTick > STRIKE_WINDOW_TICKS)
+            cwe.strikes = 0;
+        cwe.lastStrikeTick = tick;
+        if (++cwe.strikes < BSTweakerConfig.scriptStrikeLimit)
+            return;
+
+        cwe.strikes = 0;
+        cwe.disabledUntilTick = tick + BSTweakerConfig.scriptCooldownSeconds * 20L;
+        trip(cwe, overBudget ? String.format("took %.2fms (budget %.2fms)", nanos / 1e6, budget / 1e6)
+                : "kept throwing errors");
+    }
+
+    /** Log and report a disabled event (once per compiled event). */
+    private static void trip(CompiledWeaponEvent cwe, String reason) {
+        String weaponId = cwe.getStats().weaponId;
+        if (cwe.tripReported) {
+            BSTweaker.LOG.debug("Script " + weaponId + " " + cwe.event.eventType + " disabled again: " + reason);
+            return;
+        }
+        cwe.tripReported = true;
+
+        String message = "Script disabled for " + BSTweakerConfig.scriptCooldownSeconds + "s: " + reason;
+        BSTweaker.LOG.warn(weaponId + " " + cwe.event.eventType + ": " + message);
+        ConfigValidationErrors.getInstance().warning(ConfigValidationErrors.Source.SCRIPTS, weaponId,
+                cwe.event.eventType, message);
+        ValidationErrorNotifier.notifyOps(
+                "§e[BSTweaker] '" + weaponId + "' " + cwe.event.eventType + ": " + message);
+    }
+
+    /** Reset global state (after reload; per event state lives on the recompiled events). */
+    public static void reset() {
+        tickNanos = 0;
+        skippedThisTick = 0;
+        tickBudgetWarned = false;
+    }
+}
@@ -0,0 +1,241 @@
+package com.mujmajnkraft.bstweaker.effects;
+
+import com.mujmajnkraft.bstweaker.BSTweaker;
+import com.mujmajnkraft.bstweaker.config.BSTweakerConfig;
+import com.mujmajnkraft.bstweaker.validation.ConfigValidationErrors;
+import net.minecraft.item.Item;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiled event cache - weapon events are compiled once at load/reload, not per hit.
+ * A reload reuses compiled events whose source hash is unchanged, so only edited
+ * events are recompiled and the rest keep their generated classes and JIT state.
+ */
+public class ScriptCache {
+
+    // Weapon item (identity) -> compiled effects by trigger
+    private static final Map<Item, WeaponEffects> weaponEffects = new IdentityHashMap<>();
+
+    // Weapons registered before potion handles exist (item registration runs before modded potions)
+    private static final Map<Item, List<WeaponEvent>> pending = new LinkedHashMap<>();
+
+    // Compiled events of the previous load, taken by source hash while a reload re-registers weapons
+    private static Map<Item, List<CompiledWeaponEvent>> previous = Collections.emptyMap();
+    private static Map<Item, WeaponEffects> beforeReload = Collections.emptyMap(); // restored if a reload fails
+    private static boolean previousCompileScripts;
+    private static int reusedCount;
+    private static int compiledCount;
+    private static boolean reloading = false;
+
+    // Weapons with client-side events - immutable snapshot read by the client thread
+    private static volatile Map<Item, WeaponEffects> clientView = Collections.emptyMap();
+
+    /** Compile all events of a weapon, replacing any previous entries. */
+    public static void compile(Item weapon, List<WeaponEvent> events) {
+        if (!PotionHandles.isReady()) {
+            pending.put(weapon, events);
+            return;
+        }
+        String weaponId = String.valueOf(weapon.getRegistryName());
+        List<CompiledWeaponEvent> compiled = new ArrayList<>();
+        List<CompiledWeaponEvent> clientCompiled = new ArrayList<>();
+        PotionClamp clamp = null;
+        int nativeCount = 0;
+        int actionCount = 0;
+
+        for (WeaponEvent we : events) {
+            if (we.trigger == null) {
+                ConfigValidationErrors.getInstance().warning(ConfigValidationErrors.Source.SCRIPTS,
+                        weaponId, we.eventType, "Unknown event type, event ignored");
+                continue;
+            }
+            if (we.side == null) {
+                ConfigValidationErrors.getInstance().warning(ConfigValidationErrors.Source.SCRIPTS,
+                        weaponId, we.eventType, "Unknown side '" + we.sideName + "', event ignored");
+                continue;
+            }
+            if (we.side.onClient() && we.trigger != EventTrigger.HELD) {
+                ConfigValidationErrors.getInstance().warning(ConfigValidationErrors.Source.SCRIPTS,
+                        weaponId, we.eventType, "Only whenHeld can run on the client, "
+                                + (we.side == EventSide.CLIENT ? "event ignored" : "running on the server only"));
+                if (we.side == EventSide.CLIENT)
+                    continue;
+            }
+            boolean onClient = we.side.onClient() && we.trigger == EventTrigger.HELD;
+            if (onClient && we.usesServerOnlyApi()) {
+                ConfigValidationErrors.getInstance().warning(ConfigValidationErrors.Source.SCRIPTS,
+                        weaponId, we.eventType, "Area, timer and effect state calls are server only, "
+                                + (we.side == EventSide.CLIENT ? "event ignored" : "running on the server only"));
+                if (we.side == EventSide.CLIENT)
+                    continue;
+                onClient = false;
+            }
+            if (we.batch && !we.isBatched()) {
+                ConfigValidationErrors.getInstance().warning(ConfigValidationErrors.Source.SCRIPTS,
+                        weaponId, we.eventType, we.trigger != EventTrigger.HIT
+                                ? "Only onHit can be batched, running unbatched"
+                                : "Batched events can't use event (the hit is already applied), running unbatched");
+            }
+            if (we.actions.isEmpty())
+                continue;
+
+            // Plain suppress events are enforced when potions are applied, not polled
+            PotionClamp rule = we.side == EventSide.SERVER ? PotionClamp.fromEvent(we) : null;
+            if (rule != null) {
+                clamp = clamp == null ? rule : clamp.merge(rule);
+                continue;
+            }
+
+            CompiledWeaponEvent cwe = null;
+            if (we.side.onServer()) {
+                cwe = reuse(weapon, we);
+                if (cwe != null) {
+                    reusedCount++;
+                } else {
+                    cwe = CompiledWeaponEvent.compile(weaponId, we);
+                    compiledCount++;
+                }
+                if (cwe != null) {
+                    compiled.add(cwe);
+                    nativeCount += cwe.getNativeCount();
+                    actionCount += we.actions.size();
+                }
+            }
+            // The client thread gets its own copy - nothing compiled here is shared with the server thread
+            CompiledWeaponEvent clientCopy = onClient ? CompiledWeaponEvent.compileClient(weaponId, we) : null;
+            if (clientCopy != null)
+                clientCompiled.add(clientCopy);
+            if (cwe == null && clientCopy == null) {
+                ConfigValidationErrors.getInstance().warning(ConfigValidationErrors.Source.SCRIPTS,
+                        weaponId, we.eventType, "Script failed to compile, event disabled");
+            }
+        }
+
+        WeaponEffects effects = compiled.isEmpty() && clientCompiled.isEmpty() && clamp == null ? null
+                : new WeaponEffects(compiled, clientCompiled, clamp);
+        WeaponEffects old = effects != null ? weaponEffects.put(weapon, effects) : weaponEffects.remove(weapon);
+        if ((effects != null && effects.hasClientEvents()) || (old != null && old.hasClientEvents()))
+            publishClientView();
+        if (effects == null)
+            return;
+        BSTweaker.LOG.debug("Compiled " + compiled.size() + " events for " + weaponId + " (" + nativeCount + "/"
+                + actionCount + " actions native" + (clamp != null ? ", potion clamp" : "") + ")");
+    }
+
+    /** Take the previous compile result of an identical event (null if none). */
+    private static CompiledWeaponEvent reuse(Item weapon, WeaponEvent we) {
+        List<CompiledWeaponEvent> candidates = previous.get(weapon);
+        if (candidates == null || previousCompileScripts != BSTweakerConfig.compileScripts)
+            return null;
+        String hash = we.getHash();
+        for (int i = 0; i < candidates.size(); i++) {
+            CompiledWeaponEvent cwe = candidates.get(i);
+            if (cwe.event.trigger == we.trigger && cwe.event.getHash().equals(hash)) {
+                candidates.remove(i); // Each compiled event backs at most one new event
+                cwe.resetBudget();
+                return cwe;
+            }
+        }
+        return null;
+    }
+
+    /** Start a reload - current events become reuse candidates for the weapons registered next. */
+    public static void beginReload() {
+        previous = new IdentityHashMap<>();
+        for (Map.Entry<Item, WeaponEffects> entry : weaponEffects.entrySet()) {
+            previous.put(entry.getKey(), new ArrayList<>(entry.getValue().getAll()));
+        }
+        beforeReload = new IdentityHashMap<>(weaponEffects);
+        previousCompileScripts = BSTweakerConfig.compileScripts;
+        reusedCount = 0;
+        compiledCount = 0;
+        reloading = true;
+        weaponEffects.clear();
+        pending.clear();
+    }
+
+    /** Finish a reload - drops events that were not reused. */
+    public static void endReload() {
+        previous = Collections.emptyMap();
+        beforeReload = Collections.emptyMap();
+        reloading = false;
+        publishClientView();
+        BSTweaker.LOG.info("Script reload: " + compiledCount + " events compiled, " + reusedCount + " unchanged");
+    }
+
+    /** Cancel a failed reload - puts back the events that were active before it. */
+    public static void abortReload() {
+        if (!reloading)
+            return;
+        weaponEffects.clear();
+        weaponEffects.putAll(beforeReload);
+        previous = Collections.emptyMap();
+        beforeReload = Collections.emptyMap();
+        reloading = false;
+        publishClientView();
+        BSTweaker.LOG.warn("Script reload failed, keeping the previous events");
+    }
+
+    /** Rebuild the client snapshot (not mid-reload, the client keeps the old one until it finishes). */
+    private static void publishClientView() {
+        if (reloading)
+            return;
+        Map<Item, WeaponEffects> view = new IdentityHashMap<>();
+        for (Map.Entry<Item, WeaponEffects> entry : weaponEffects.entrySet()) {
+            if (entry.getValue().hasClientEvents())
+                view.put(entry.getKey(), entry.getValue());
+        }
+        clientView = view.isEmpty() ? Collections.<Item, WeaponEffects>emptyMap() : view;
+    }
+
+    /** Weapons with client-side events (safe to read from the client thread). */
+    public static Map<Item, WeaponEffects> getClientView() {
+        return clientView;
+    }
+
+    /** Build potion handles and compile the weapons registered during startup (registries are frozen). */
+    public static void compilePending() {
+        PotionHandles.build();
+        for (Map.Entry<Item, List<WeaponEvent>> entry : pending.entrySet()) {
+            compile(entry.getKey(), entry.getValue());
+        }
+        pending.clear();
+    }
+
+    /** All compiled weapons (read-only view). */
+    public static Map<Item, WeaponEffects> getAll() {
+        return Collections.unmodifiableMap(weaponEffects);
+    }
+
+    /** Whether any compiled event runs (or waits for) the script engine. */
+    public static boolean usesScriptEngine() {
+        for (WeaponEffects effects : weaponEffects.values()) {
+            for (CompiledWeaponEvent cwe : effects.getAll()) {
+                if (cwe.usesScript())
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    /** Get compiled effects for a weapon (null if it has none). */
+    public static WeaponEffects get(Item weapon) {
+        return weaponEffects.get(weapon);
+    }
+
+    /** Drop all compiled events (before reload). */
+    public static void clear() {
+        weaponEffects.clear();
+        pending.clear();
+        previous = Collections.emptyMap();
+        beforeReload = Collections.emptyMap();
+        reloading = false;
+        clientView = Collections.emptyMap();
+    }
+}
@@ -0,0 +1,18 @@
+package com.mujmajnkraft.bstweaker.effects;
+
+import javax.script.CompiledScript;
+
+/** Script condition - "when" expression the condition compiler does not support, run by the script engine. */
+public class ScriptCondition implements EventCondition {
+
+    private final CompiledScript script;
+
+    public ScriptCondition(CompiledScript script) {
+        this.script = script;
+    }
+
+    @Override
+    public boolean test(EventContext context) {
+        return ScriptEngine_.test(script, context);
+    }
+}
@@ -1,23 +1,132 @@
 package com.mujmajnkraft.bstweaker.effects;
 
 import com.mujmajnkraft.bstweaker.BSTweaker;
+import com.mujmajnkraft.bstweaker.effects.compiler.ActionRuntime;
 import net.minecraft.entity.EntityLivingBase;
 import net.minecraft.potion.Potion;
 import net.minecraft.potion.PotionEffect;
-import net.minecraft.util.ResourceLocation;
 import net.minecraftforge.event.entity.living.LivingHurtEvent;
 
 import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptContext;
 import javax.script.ScriptEngine;
 import javax.script.ScriptEngineFactory;
+import javax.script.ScriptException;
+import javax.script.SimpleScriptContext;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.DoublePredicate;
+import java.util.function.DoubleSupplier;
 
-/** JavaScript script engine - executes user scripts. */
+/**
+ * JavaScript script engine - executes user scripts.
+ *
+ * The engine is created on a background thread the first time an event needs it,
+ * so configs that compile fully natively never start it. Until it is ready, script
+ * calls are no-ops and compile work is queued (see whenReady).
+ */
 public class ScriptEngine_ {
     
-    private static ScriptEngine engine;
+    private static volatile ScriptEngine engine;
+    private static volatile boolean ready = false;
     
-    static {
+    // Work waiting for the engine, run on the init thread before ready is set
+    private static final Object LOCK = new Object();
+    private static final List<Runnable> pending = new ArrayList<>();
+    private static Thread initThread;
+    
+    /** Start creating the engine on a background thread (no-op once started). */
+    public static void startAsync() {
+        synchronized (LOCK) {
+            if (initThread != null) {
+                return;
+            }
+            initThread = new Thread(ScriptEngine_::initialize, "BSTweaker Script Engine");
+            initThread.setDaemon(true);
+            initThread.start();
+        }
+    }
+    
+    /** Run the task once the engine is ready - now if it is, otherwise queued (and the engine started). */
+    public static void whenReady(Runnable task) {
+        synchronized (LOCK) {
+            if (!ready) {
+                pending.add(task);
+                startAsync();
+                return;
+            }
+        }
+        task.run();
+    }
+    
+    /** Run the task once the engine is ready, without starting it (shared library). */
+    static void onReady(Runnable task) {
+        synchronized (LOCK) {
+            if (!ready) {
+                pending.add(task);
+                return;
+            }
+        }
+        task.run();
+    }
+    
+    /** Start the engine and wait for it (benchmarks, commands). */
+    public static boolean awaitReady(long timeoutMillis) {
+        startAsync();
+        try {
+            initThread.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return ready;
+    }
+    
+    /** Whether the engine finished starting (it may still be unavailable). */
+    public static boolean isReady() {
+        return ready;
+    }
+    
+    /** Init thread: create, warm up, then run queued work before handing the engine to the server thread. */
+    private static void initialize() {
+        long start = System.nanoTime();
+        engine = createEngine();
+        if (engine != null) {
+            try {
+                compileOrThrow("var warmup = 0; for (var i = 0; i < 16; i++) { warmup += i; } warmup")
+                        .eval(engine.createBindings());
+            } catch (Exception e) {
+                BSTweaker.LOG.warn("Script engine warm-up failed: " + e.getMessage());
+            }
+            BSTweaker.LOG.info("Script engine ready in " + (System.nanoTime() - start) / 1000000 + " ms");
+        }
+        
+        while (true) {
+            Runnable task;
+            synchronized (LOCK) {
+                if (pending.isEmpty()) {
+                    ready = true;
+                    return;
+                }
+                task = pending.remove(0);
+            }
+            try {
+                task.run();
+            } catch (Exception e) {
+                BSTweaker.LOG.error("Deferred script compile failed: " + e.getMessage());
+            }
+        }
+    }
+    
+    private static ScriptEngine createEngine() {
+        ScriptEngine engine = null;
         try {
             // Method 1: Direct NashornScriptEngineFactory
             try {
@@ -70,34 +179,290 @@ public class ScriptEngine_ {
             BSTweaker.LOG.error("Failed to initialize script engine: " + e.getMessage());
             e.printStackTrace();
         }
+        return engine;
+    }
+    
+    /** Check if a script engine was found. */
+    public static boolean isAvailable() {
+        return engine != null;
+    }
+    
+    /** Compile script once for repeated execution (null on error or no engine). */
+    public static CompiledScript compile(String script) {
+        try {
+            return compileOrThrow(script);
+        } catch (ScriptException e) {
+            BSTweaker.LOG.error("Script compile error: " + e.getMessage());
+            return null;
+        }
+    }
+    
+    /** Compile script without logging errors (used to probe partial scripts). */
+    public static CompiledScript compileQuietly(String script) {
+        try {
+            return compileOrThrow(script);
+        } catch (ScriptException e) {
+            return null;
+        }
+    }
+    
+    private static CompiledScript compileOrThrow(String script) throws ScriptException {
+        if (engine == null) {
+            return null;
+        }
+        if (engine instanceof Compilable) {
+            return ((Compilable) engine).compile(script);
+        }
+        return new SourceScript(script);
+    }
+    
+    /** Fresh global for the shared library, with the helpers event scopes get. */
+    static Bindings newLibraryScope() {
+        Bindings global = engine.createBindings();
+        global.put("Potion", POTION_HELPER);
+        global.put("log", LOGGER);
+        return global;
+    }
+    
+    /** Evaluate one library function into its global (false on error). */
+    static boolean evalLibrary(String name, String source, Bindings global) {
+        try {
+            CompiledScript script = compileOrThrow(source);
+            if (script == null) {
+                return false;
+            }
+            script.eval(global);
+            return true;
+        } catch (Exception e) {
+            BSTweaker.LOG.error("Script library error in " + name + ": " + e.getMessage());
+            return false;
+        }
     }
     
     /** Execute script. */
     public static void execute(String script, EventContext ctx) {
-        if (engine == null) {
+        if (!ready || engine == null) {
             return;
         }
         
         try {
-            Bindings bindings = engine.createBindings();
-            
-            // Bind context variables
-            bindings.put("self", new EntityWrapper(ctx.self));
-            bindings.put("victim", ctx.victim != null ? new EntityWrapper(ctx.victim) : null);
-            bindings.put("event", new EventWrapper(ctx.forgeEvent));
-            bindings.put("Potion", new PotionHelper());
-            bindings.put("log", new Logger());
-            
-            engine.eval(script, bindings);
-            
+            engine.eval(script, bind(ctx));
         } catch (Exception e) {
             BSTweaker.LOG.error("Script error: " + e.getMessage());
         }
     }
     
+    /** Execute precompiled script (chunks of one event share the context's bindings). */
+    public static void execute(CompiledScript script, EventContext ctx) {
+        if (!ready || engine == null) {
+            return;
+        }
+        
+        try {
+            script.eval(bind(ctx));
+        } catch (Exception e) {
+            ctx.scriptFailed = true;
+            if (!ctx.warmup) {
+                BSTweaker.LOG.error("Script error: " + e.getMessage());
+            }
+        }
+    }
+    
+    /** Evaluate precompiled condition script (false on error). */
+    public static boolean test(CompiledScript script, EventContext ctx) {
+        if (!ready || engine == null) {
+            return false;
+        }
+        
+        try {
+            Object result = script.eval(bind(ctx));
+            if (result instanceof Boolean) {
+                return (Boolean) result;
+            }
+            if (result instanceof Number) {
+                return ((Number) result).doubleValue() != 0;
+            }
+            return result != null;
+        } catch (Exception e) {
+            ctx.scriptFailed = true;
+            if (!ctx.warmup) {
+                BSTweaker.LOG.error("Condition error: " + e.getMessage());
+            }
+            return false;
+        }
+    }
+    
+    /** Release the context's pooled scope (call once the context is done). */
+    public static void release(EventContext ctx) {
+        if (ctx.scope != null) {
+            ctx.scope.unbind();
+            ctx.scope = null;
+            SCOPES.get().depth--;
+        }
+    }
+    
+    /** Pass the context's scope on to the next context of a batch (same self, another victim). */
+    static void handOver(EventContext from, EventContext to) {
+        if (from.scope != null) {
+            to.scope = from.scope;
+            from.scope = null;
+            to.scope.bindVictim(to.victim);
+        }
+    }
+    
+    /** Get the script context for the event, taking a pooled scope on first use. */
+    private static ScriptContext bind(EventContext ctx) {
+        if (ctx.scope == null) {
+            ScopeStack stack = SCOPES.get();
+            ctx.scope = stack.acquire();
+            ctx.scope.bind(ctx);
+        }
+        return ctx.scope.context;
+    }
+    
+    // ========== Pooled scopes ==========
+    
+    private static final PotionHelper POTION_HELPER = new PotionHelper();
+    private static final Logger LOGGER = new Logger();
+    private static final Logger QUIET_LOGGER = new QuietLogger();
+    // random() and chance(p) - same as in native conditions and actions
+    private static final DoubleSupplier RANDOM = ActionRuntime::random;
+    private static final DoublePredicate CHANCE = ActionRuntime::chance;
+    
+    private static final ThreadLocal<ScopeStack> SCOPES = ThreadLocal.withInitial(ScopeStack::new);
+    
+    /**
+     * Per-thread scopes, one per nesting depth (a script can trigger another weapon event).
+     * Each scope has its own script global, so the client thread never shares one with the server.
+     */
+    private static class ScopeStack {
+        private ScriptScope[] scopes = new ScriptScope[4];
+        private int depth = 0;
+        
+        ScriptScope acquire() {
+            if (depth == scopes.length) {
+                scopes = java.util.Arrays.copyOf(scopes, depth * 2);
+            }
+            if (scopes[depth] == null) {
+                scopes[depth] = new ScriptScope();
+            }
+            return scopes[depth++];
+        }
+    }
+    
+    /** Reusable bindings and wrappers - re-pointed at each context instead of reallocated. */
+    static class ScriptScope {
+        // Keys bind() sets - anything else a script adds is dropped on unbind()
+        private static final Set<String> BOUND_NAMES = new HashSet<>(
+                Arrays.asList("self", "victim", "event", "Potion", "log", "random", "chance"));
+        
+        final Bindings bindings = engine.createBindings();
+        // Reused for every eval - eval(Bindings) would build a new context (and its reader/writers) each call
+        final ScriptContext context = new SimpleScriptContext();
+        final EntityWrapper self = new EntityWrapper(null);
+        final EntityWrapper victim = new EntityWrapper(null);
+        final EventWrapper event = new EventWrapper(null);
+        private int libraryVersion = 0;
+        private Set<String> libraryNames = Collections.emptySet();
+        private Map<String, Object> libraryFunctions = Collections.emptyMap();
+        private final Set<String> undeletable = new HashSet<>(); // top-level var/function names, kept as null
+        
+        ScriptScope() {
+            context.setBindings(bindings, ScriptContext.ENGINE_SCOPE);
+            context.setBindings(engine.getBindings(ScriptContext.GLOBAL_SCOPE), ScriptContext.GLOBAL_SCOPE);
+        }
+        
+        void bind(EventContext ctx) {
+            if (libraryVersion != ScriptLibrary.getVersion()) {
+                // Scopes are per thread; the client thread binds its own copy of the library
+                bindLibrary(ctx.self != null && ctx.self.world != null && ctx.self.world.isRemote);
+            }
+            self.entity = ctx.self;
+            self.attacker = ctx.self;
+            victim.entity = ctx.victim;
+            victim.attacker = ctx.self;
+            event.event = ctx.forgeEvent;
+            bindings.put("self", self);
+            bindings.put("victim", ctx.victim != null ? victim : null);
+            bindings.put("event", event);
+            bindings.put("Potion", POTION_HELPER);
+            bindings.put("log", ctx.warmup ? QUIET_LOGGER : LOGGER);
+            bindings.put("random", RANDOM);
+            bindings.put("chance", CHANCE);
+        }
+        
+        /** Re-point the victim only (batched hits). */
+        void bindVictim(EntityLivingBase entity) {
+            victim.entity = entity;
+            bindings.put("victim", entity != null ? victim : null);
+        }
+        
+        /** Swap in the current library functions (after a library change). */
+        private void bindLibrary(boolean client) {
+            for (String name : libraryNames) {
+                bindings.remove(name);
+            }
+            libraryVersion = ScriptLibrary.getVersion();
+            Map<String, Object> functions = client ? ScriptLibrary.getClientFunctions() : ScriptLibrary.getFunctions();
+            bindings.putAll(functions);
+            undeletable.removeAll(functions.keySet());
+            libraryNames = functions.keySet();
+            libraryFunctions = functions;
+        }
+        
+        /** Drop entity references and script globals so pooled scopes don't leak into later runs. */
+        void unbind() {
+            self.entity = null;
+            self.attacker = null;
+            victim.entity = null;
+            victim.attacker = null;
+            event.event = null;
+            
+            if (bindings.size() != BOUND_NAMES.size() + libraryNames.size() + undeletable.size()) {
+                for (String name : new ArrayList<>(bindings.keySet())) {
+                    if (BOUND_NAMES.contains(name) || libraryNames.contains(name) || undeletable.contains(name))
+                        continue;
+                    bindings.remove(name);
+                    // Top-level var and function declarations can't be deleted from a global
+                    if (bindings.containsKey(name))
+                        undeletable.add(name);
+                }
+            }
+            for (String name : undeletable) {
+                bindings.put(name, null);
+            }
+            for (Map.Entry<String, Object> entry : libraryFunctions.entrySet()) {
+                if (!entry.getValue().equals(bindings.get(entry.getKey()))) {
+                    libraryVersion = -1; // Overwritten by a script - rebind on next use
+                    break;
+                }
+            }
+        }
+    }
+    
+    /** Fallback for engines without Compilable - evaluates the source each time. */
+    private static class SourceScript extends CompiledScript {
+        private final String source;
+        
+        SourceScript(String source) {
+            this.source = source;
+        }
+        
+        @Override
+        public Object eval(ScriptContext context) throws ScriptException {
+            return engine.eval(source, context);
+        }
+        
+        @Override
+        public ScriptEngine getEngine() {
+            return engine;
+        }
+    }
+    
     /** Entity wrapper - API exposed to scripts. */
     public static class EntityWrapper {
-        private final EntityLivingBase entity;
+        private EntityLivingBase entity;
+        private EntityLivingBase attacker; // credited for area damage (the event's self)
         
         public EntityWrapper(EntityLivingBase entity) {
             this.entity = entity;
@@ -107,15 +472,35 @@ public class ScriptEngine_ {
         public float getHealth() { return entity.getHealth(); }
         public void setHealth(float health) { entity.setHealth(health); }
         public float getMaxHealth() { return entity.getMaxHealth(); }
+        public float getHealthRatio() { return (float) ActionRuntime.healthRatio(entity); }
         public void heal(float amount) { entity.heal(amount); }
+        public void damage() { damage(2.0f); }
+        public void damage(float amount) { ActionRuntime.damage(entity, amount); }
         
         // Hurt resistant time
         public int getHurtResistantTime() { return entity.hurtResistantTime; }
         public void setHurtResistantTime(int time) { entity.hurtResistantTime = time; }
         
-        // Potions
-        public PotionEffectWrapper getPotionEffect(String id) {
-            Potion potion = Potion.REGISTRY.getObject(new ResourceLocation(id));
+        // Potions - ids go through the interned handles; scripts can also pass a handle from Potion.get(id)
+        public PotionEffectWrapper getPotionEffect(String id) { return getPotionEffect(PotionHandles.get(id)); }
+        public void addPotionEffect(String id, int duration, int amplifier) { addPotionEffect(PotionHandles.get(id), duration, amplifier); }
+        public void removePotionEffect(String id) { removePotionEffect(PotionHandles.get(id)); }
+        public boolean hasPotionEffect(String id) { return hasPotionEffect(PotionHandles.get(id)); }
+        
+        // Short forms, as in native conditions and actions (duration 100 ticks, amplifier 0, max level 0 by default)
+        public void addPotion(String id) { addPotionEffect(PotionHandles.get(id), 100, 0); }
+        public void addPotion(String id, int duration) { addPotionEffect(PotionHandles.get(id), duration, 0); }
+        public void addPotion(String id, int duration, int amplifier) { addPotionEffect(PotionHandles.get(id), duration, amplifier); }
+        public void applyPotion(String id) { addPotion(id); }
+        public void applyPotion(String id, int duration) { addPotion(id, duration); }
+        public void applyPotion(String id, int duration, int amplifier) { addPotion(id, duration, amplifier); }
+        public void removePotion(String id) { removePotionEffect(PotionHandles.get(id)); }
+        public boolean hasPotion(String id) { return hasPotionEffect(PotionHandles.get(id)); }
+        public boolean hasPotion(Potion potion) { return hasPotionEffect(potion); }
+        public void suppressPotion(String id) { suppressPotion(id, 0); }
+        public void suppressPotion(String id, int maxLevel) { ActionRuntime.suppressPotion(entity, PotionHandles.get(id), maxLevel); }
+        
+        public PotionEffectWrapper getPotionEffect(Potion potion) {
             if (potion != null) {
                 PotionEffect effect = entity.getActivePotionEffect(potion);
                 if (effect != null) {
@@ -125,22 +510,19 @@ public class ScriptEngine_ {
             return null;
         }
         
-        public void addPotionEffect(String id, int duration, int amplifier) {
-            Potion potion = Potion.REGISTRY.getObject(new ResourceLocation(id));
+        public void addPotionEffect(Potion potion, int duration, int amplifier) {
             if (potion != null) {
-                entity.addPotionEffect(new PotionEffect(potion, duration, amplifier));
+                PotionBuffer.add(entity, new PotionEffect(potion, duration, amplifier));
             }
         }
         
-        public void removePotionEffect(String id) {
-            Potion potion = Potion.REGISTRY.getObject(new ResourceLocation(id));
+        public void removePotionEffect(Potion potion) {
             if (potion != null) {
-                entity.removePotionEffect(potion);
+                PotionBuffer.remove(entity, potion);
             }
         }
         
-        public boolean hasPotionEffect(String id) {
-            Potion potion = Potion.REGISTRY.getObject(new ResourceLocation(id));
+        public boolean hasPotionEffect(Potion potion) {
             return potion != null && entity.isPotionActive(potion);
         }
         
@@ -168,16 +550,67 @@ public class ScriptEngine_ {
                 }
             }
             for (PotionEffect effect : toSuppress) {
-                Potion potion = effect.getPotion();
-                entity.removePotionEffect(potion);
-                entity.addPotionEffect(new PotionEffect(potion, effect.getDuration(), maxLevel));
+                PotionBuffer.replace(entity, new PotionEffect(effect.getPotion(), effect.getDuration(), maxLevel));
             }
         }
 
+        // Timers - fn gets this entity's wrapper (the outer self/victim are re-bound by later events)
+        public TimerWheel.Timer delay(int ticks, ScriptTask fn) {
+            return schedule(ticks, 0, fn);
+        }
+        
+        public TimerWheel.Timer repeat(int period, int count, ScriptTask fn) {
+            return schedule(period, count, fn);
+        }
+        
+        private TimerWheel.Timer schedule(int ticks, int count, ScriptTask fn) {
+            if (fn == null || entity.world == null || entity.world.isRemote) {
+                return null; // Warm-up stand-ins and client copies don't schedule
+            }
+            EntityWrapper owner = new EntityWrapper(entity);
+            owner.attacker = attacker;
+            TimerWheel.Task task = e -> fn.run(owner);
+            return count > 0 ? TimerWheel.repeat(entity, ticks, count, task) : TimerWheel.delay(entity, ticks, task);
+        }
+        
+        // Effect state - per-entity numbers kept until death/unload (one type per key)
+        public int getInt(String key) { return EffectStateStore.getInt(entity, EffectStateStore.key(key)); }
+        public void setInt(String key, int value) { EffectStateStore.setInt(entity, EffectStateStore.key(key), value); }
+        public int addInt(String key, int delta) { return EffectStateStore.addInt(entity, EffectStateStore.key(key), delta); }
+        public float getFloat(String key) { return EffectStateStore.getFloat(entity, EffectStateStore.key(key)); }
+        public void setFloat(String key, float value) { EffectStateStore.setFloat(entity, EffectStateStore.key(key), value); }
+        public float addFloat(String key, float delta) { return EffectStateStore.addFloat(entity, EffectStateStore.key(key), delta); }
+        public long getLong(String key) { return EffectStateStore.getLong(entity, EffectStateStore.key(key)); }
+        public void setLong(String key, long value) { EffectStateStore.setLong(entity, EffectStateStore.key(key), value); }
+        public boolean cooldown(String key, int ticks) { return EffectStateStore.cooldown(entity, EffectStateStore.key(key), ticks); }
+        
+        // Area actions - shared per-tick entity scan around this entity
+        public void explodeDamage(double radius) { explodeDamage(radius, 2.0f); }
+        public void explodeDamage(double radius, float amount) { AreaEffects.explodeDamage(entity, attacker, radius, amount); }
+        public void pulseHeal(double radius) { pulseHeal(radius, 2.0f); }
+        public void pulseHeal(double radius, float amount) { AreaEffects.pulseHeal(entity, radius, amount); }
+        
         // Misc
         public void setFire(int seconds) { entity.setFire(seconds); }
+        public void ignite() { ignite(100); }
+        public void ignite(int ticks) { ActionRuntime.ignite(entity, ticks); }
         public boolean isBurning() { return entity.isBurning(); }
         public boolean isInWater() { return entity.isInWater(); }
+        public boolean isWet() { return entity.isWet(); }
+        public boolean isSneaking() { return entity.isSneaking(); }
+        public boolean isOnGround() { return entity.onGround; } // also self.onGround
+        public boolean onGround() { return isOnGround(); }
+        
+        // Property style without parentheses (self.isBurning), as native conditions accept it
+        public boolean getIsBurning() { return isBurning(); }
+        public boolean getIsInWater() { return isInWater(); }
+        public boolean getIsWet() { return isWet(); }
+        public boolean getIsSneaking() { return isSneaking(); }
+    }
+    
+    /** Script function run by a timer. */
+    public interface ScriptTask {
+        void run(EntityWrapper entity);
     }
     
     /** Potion effect wrapper. */
@@ -199,15 +632,13 @@ public class ScriptEngine_ {
         }
 
         public void setAmplifier(int amplifier) {
-            Potion potion = effect.getPotion();
-            entity.removePotionEffect(potion);
-            entity.addPotionEffect(new PotionEffect(potion, effect.getDuration(), amplifier));
+            PotionBuffer.replace(entity, new PotionEffect(effect.getPotion(), effect.getDuration(), amplifier));
         }
     }
     
     /** Event wrapper. */
     public static class EventWrapper {
-        private final Object event;
+        private Object event;
         
         public EventWrapper(Object event) {
             this.event = event;
@@ -233,10 +664,10 @@ public class ScriptEngine_ {
         }
     }
     
-    /** Potion helper. */
+    /** Potion helper - returns the interned handle, so scripts can resolve ids once and reuse them. */
     public static class PotionHelper {
         public Potion get(String id) {
-            return Potion.REGISTRY.getObject(new ResourceLocation(id));
+            return PotionHandles.get(id);
         }
     }
     
@@ -245,4 +676,10 @@ public class ScriptEngine_ {
         public void info(Object msg) { BSTweaker.LOG.info(String.valueOf(msg)); }
         public void debug(Object msg) { BSTweaker.LOG.debug(String.valueOf(msg)); }
     }
+    
+    /** Logger for warm-up runs - drops everything. */
+    public static class QuietLogger extends Logger {
+        @Override public void info(Object msg) { }
+        @Override public void debug(Object msg) { }
+    }
 }
@@ -0,0 +1,154 @@
+package com.mujmajnkraft.bstweaker.effects;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.mujmajnkraft.bstweaker.BSTweaker;
+import com.mujmajnkraft.bstweaker.validation.ConfigValidationErrors;
+
+import javax.script.Bindings;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shared script library - the top-level "library" section of scripts.json.
+ *
+ * Each entry is a named function, compiled once into its own global scope;
+ * the resulting function objects are bound into every event's scope, so
+ * weapons share one copy instead of repeating helpers in their actions.
+ * Library functions don't see self/victim/event - pass what they need.
+ * Reload recompiles only when the section's content hash changed.
+ */
+public class ScriptLibrary {
+
+    private static final List<String> RESERVED = Arrays.asList("self", "victim", "event", "Potion", "log", "random",
+            "chance");
+
+    private static String hash = SourceHash.of("");
+    private static Map<String, String> definitions = Collections.emptyMap();
+    private static boolean queued = false;
+
+    private static volatile Map<String, Object> functions = Collections.emptyMap();
+    private static volatile Map<String, String> compiledSources = Collections.emptyMap(); // source of functions
+    private static volatile int version = 0;
+
+    // Client thread's own copy, compiled into its own global (function objects aren't shared across threads)
+    private static Map<String, Object> clientFunctions = Collections.emptyMap();
+    private static int clientVersion = 0;
+
+    /** Load the library section (call on every scripts.json load). */
+    public static synchronized void load(JsonObject scriptsRoot) {
+        Map<String, String> definitions = new LinkedHashMap<>();
+        if (scriptsRoot.has("library") && scriptsRoot.get("library").isJsonObject()) {
+            for (Map.Entry<String, JsonElement> entry : scriptsRoot.getAsJsonObject("library").entrySet()) {
+                String name = entry.getKey();
+                if (!isName(name) || RESERVED.contains(name)) {
+                    ConfigValidationErrors.getInstance().warning(ConfigValidationErrors.Source.SCRIPTS, "library",
+                            name, "Invalid library function name, skipped");
+                    continue;
+                }
+                definitions.put(name, joinLines(entry.getValue()));
+            }
+        }
+
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, String> entry : definitions.entrySet()) {
+            sb.append(entry.getKey()).append('=').append(entry.getValue()).append('\n');
+        }
+        String newHash = SourceHash.of(sb.toString());
+        if (newHash.equals(hash)) {
+            BSTweaker.LOG.debug("Script library unchanged, keeping compiled functions");
+            return;
+        }
+
+        hash = newHash;
+        ScriptLibrary.definitions = definitions;
+        if (definitions.isEmpty()) {
+            functions = Collections.emptyMap();
+            compiledSources = Collections.emptyMap();
+            version++;
+            return;
+        }
+        // Compiled with the engine - never starts it on its own
+        if (!queued) {
+            queued = true;
+            ScriptEngine_.onReady(ScriptLibrary::compile);
+        }
+    }
+
+    /** Compile the current source into a fresh global and publish its functions. */
+    private static synchronized void compile() {
+        queued = false;
+        if (!ScriptEngine_.isAvailable() || definitions.isEmpty())
+            return;
+
+        long start = System.nanoTime();
+        Map<String, Object> compiled = evaluate(definitions);
+        compiledSources = definitions;
+        functions = compiled;
+        version++;
+        BSTweaker.LOG.info("Compiled script library: " + compiled.size() + " functions in "
+                + (System.nanoTime() - start) / 1000000 + " ms");
+    }
+
+    /** Evaluate the sources into a fresh global, returning the functions that compiled. */
+    private static Map<String, Object> evaluate(Map<String, String> sources) {
+        Bindings global = ScriptEngine_.newLibraryScope();
+        Map<String, Object> compiled = new HashMap<>();
+        for (Map.Entry<String, String> entry : sources.entrySet()) {
+            // One entry at a time, so a broken function doesn't take the others down
+            String name = entry.getKey();
+            if (!ScriptEngine_.evalLibrary(name, "var " + name + " = (" + entry.getValue() + ");", global))
+                continue;
+            Object function = global.get(name);
+            if (function != null)
+                compiled.put(name, function);
+        }
+        return compiled;
+    }
+
+    /** Library functions by name. */
+    static Map<String, Object> getFunctions() {
+        return functions;
+    }
+
+    /** The client thread's copy of the library functions (rebuilt on that thread after a change). */
+    static Map<String, Object> getClientFunctions() {
+        int current = version;
+        if (clientVersion != current) {
+            Map<String, String> sources = compiledSources;
+            clientFunctions = sources.isEmpty() ? Collections.<String, Object>emptyMap() : evaluate(sources);
+            clientVersion = current;
+        }
+        return clientFunctions;
+    }
+
+    /** Bumped whenever the functions change (scopes rebind on mismatch). */
+    static int getVersion() {
+        return version;
+    }
+
+    private static boolean isName(String name) {
+        if (name.isEmpty() || !Character.isJavaIdentifierStart(name.charAt(0)))
+            return false;
+        for (int i = 1; i < name.length(); i++) {
+            if (!Character.isJavaIdentifierPart(name.charAt(i)))
+                return false;
+        }
+        return true;
+    }
+
+    /** Function source - a string, or an array of lines. */
+    private static String joinLines(JsonElement value) {
+        if (!value.isJsonArray())
+            return value.getAsString();
+        StringBuilder sb = new StringBuilder();
+        for (JsonElement line : value.getAsJsonArray()) {
+            sb.append(line.getAsString()).append("\n");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,190 @@
+package com.mujmajnkraft.bstweaker.effects;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Script profiler - per weapon/event invocation counts, timings and errors.
+ *
+ * Disabled by default; when off the only cost is one volatile read per event.
+ * Counters are lock-free (LongAdder) and latencies go into a compact log-linear
+ * histogram (4 sub-buckets per power of two) for percentile estimates.
+ */
+public class ScriptProfiler {
+
+    private static volatile boolean enabled = false;
+    private static volatile long startedAt = 0;
+
+    // "weaponId|eventType" -> stats (kept across reloads so a session survives /bstweaker reload)
+    private static final Map<String, Stats> stats = new ConcurrentHashMap<>();
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Reset all counters and start recording. */
+    public static void start() {
+        for (Stats s : stats.values()) {
+            s.reset();
+        }
+        startedAt = System.nanoTime();
+        enabled = true;
+    }
+
+    /** Stop recording (counters are kept for dump). */
+    public static void stop() {
+        enabled = false;
+    }
+
+    /** Seconds since start() (0 if never started). */
+    public static double getElapsedSeconds() {
+        return startedAt == 0 ? 0 : (System.nanoTime() - startedAt) / 1e9;
+    }
+
+    /** Get or create stats for a weapon event. */
+    public static Stats getStats(String weaponId, String eventType) {
+        return stats.computeIfAbsent(weaponId + "|" + eventType, k -> new Stats(weaponId, eventType));
+    }
+
+    /** Stats with at least one invocation, most expensive first. */
+    public static List<Stats> getTopOffenders() {
+        List<Stats> result = new ArrayList<>();
+        for (Stats s : stats.values()) {
+            if (s.getInvocations() > 0 || s.getErrors() > 0)
+                result.add(s);
+        }
+        result.sort(Comparator.comparingLong(Stats::getTotalNanos).reversed());
+        return result;
+    }
+
+    /** Write all stats as CSV. */
+    public static void writeCsv(File file) throws IOException {
+        try (PrintWriter out = new PrintWriter(file, StandardCharsets.UTF_8.name())) {
+            out.println("weapon,event,invocations,total_ns,mean_ns,p99_ns,max_ns,errors,script_invocations,script_ns");
+            for (Stats s : getTopOffenders()) {
+                out.println(s.weaponId + "," + s.eventType + "," + s.getInvocations() + "," + s.getTotalNanos() + ","
+                        + s.getMeanNanos() + "," + s.getPercentileNanos(0.99) + "," + s.getMaxNanos() + ","
+                        + s.getErrors() + "," + s.scriptInvocations.sum() + "," + s.scriptNanos.sum());
+            }
+        }
+    }
+
+    /** Per weapon event counters. */
+    public static class Stats {
+        private static final int SUB_BUCKET_BITS = 2;
+        private static final int BUCKETS = 64 << SUB_BUCKET_BITS;
+
+        public final String weaponId;
+        public final String eventType;
+
+        private final LongAdder invocations = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder scriptInvocations = new LongAdder();
+        private final LongAdder scriptNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+        Stats(String weaponId, String eventType) {
+            this.weaponId = weaponId;
+            this.eventType = eventType;
+        }
+
+        /** Record one event invocation. */
+        public void record(long nanos, boolean success) {
+            invocations.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+            histogram.incrementAndGet(bucketOf(nanos));
+            if (!success)
+                errors.increment();
+        }
+
+        /** Record one script engine call inside an event (errors are counted per event). */
+        public void recordScript(long nanos) {
+            scriptInvocations.increment();
+            scriptNanos.add(nanos);
+        }
+
+        public long getInvocations() {
+            return invocations.sum();
+        }
+
+        public long getTotalNanos() {
+            return totalNanos.sum();
+        }
+
+        public long getErrors() {
+            return errors.sum();
+        }
+
+        public long getMaxNanos() {
+            return maxNanos.get();
+        }
+
+        public long getMeanNanos() {
+            long count = getInvocations();
+            return count == 0 ? 0 : getTotalNanos() / count;
+        }
+
+        /** Percentile estimate (upper bound of the bucket holding it). */
+        public long getPercentileNanos(double percentile) {
+            long count = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                count += histogram.get(i);
+            }
+            if (count == 0)
+                return 0;
+
+            long rank = (long) Math.ceil(count * percentile);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += histogram.get(i);
+                if (seen >= rank)
+                    return Math.min(bucketUpperBound(i), getMaxNanos());
+            }
+            return getMaxNanos();
+        }
+
+        void reset() {
+            invocations.reset();
+            totalNanos.reset();
+            errors.reset();
+            scriptInvocations.reset();
+            scriptNanos.reset();
+            maxNanos.reset();
+            for (int i = 0; i < BUCKETS; i++) {
+                histogram.set(i, 0);
+            }
+        }
+
+        /** Log-linear bucket: power of two plus the next SUB_BUCKET_BITS bits. */
+        private static int bucketOf(long nanos) {
+            if (nanos < (1 << SUB_BUCKET_BITS))
+                return (int) Math.max(nanos, 0);
+            int exp = 63 - Long.numberOfLeadingZeros(nanos);
+            int sub = (int) (nanos >>> (exp - SUB_BUCKET_BITS)) & ((1 << SUB_BUCKET_BITS) - 1);
+            return ((exp - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS) | sub;
+        }
+
+        private static long bucketUpperBound(int bucket) {
+            if (bucket < (1 << SUB_BUCKET_BITS))
+                return bucket;
+            int exp = (bucket >>> SUB_BUCKET_BITS) + SUB_BUCKET_BITS - 1;
+            long sub = bucket & ((1 << SUB_BUCKET_BITS) - 1);
+            long base = 1L << exp;
+            long width = base >>> SUB_BUCKET_BITS;
+            return base + (sub + 1) * width - 1;
+        }
+    }
+}
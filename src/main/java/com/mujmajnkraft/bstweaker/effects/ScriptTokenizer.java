@@ -0,0 +1,99 @@
+package com.mujmajnkraft.bstweaker.effects;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Script tokenizer - splits the JavaScript subset used by conditions and compiled actions into tokens. */
+public class ScriptTokenizer {
+
+    // Longest first so "===" wins over "==" and "="
+    private static final String[] OPERATORS = {
+            "===", "!==", "+=", "-=", "*=", "/=", "%=", "||", "&&", "==", "!=", "<=", ">=", "<", ">", "!", "=",
+            "+", "-", "*", "/", "%", "(", ")", "{", "}", ".", ",", ";", "?", ":" };
+
+    /** Tokenize source (comments skipped, strings kept with their quotes). */
+    public static List<String> tokenize(String source) {
+        List<String> tokens = new ArrayList<>();
+        int i = 0;
+        int len = source.length();
+
+        outer: while (i < len) {
+            char c = source.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+                continue;
+            }
+
+            // Comments
+            if (source.startsWith("//", i)) {
+                int end = source.indexOf('\n', i);
+                i = end < 0 ? len : end + 1;
+                continue;
+            }
+            if (source.startsWith("/*", i)) {
+                int end = source.indexOf("*/", i + 2);
+                if (end < 0)
+                    throw new IllegalArgumentException("Unterminated comment");
+                i = end + 2;
+                continue;
+            }
+
+            // Number (".5" too, but not member access)
+            if (Character.isDigit(c) || (c == '.' && i + 1 < len && Character.isDigit(source.charAt(i + 1))
+                    && (tokens.isEmpty() || !isOperand(tokens.get(tokens.size() - 1))))) {
+                int start = i;
+                while (i < len && (Character.isDigit(source.charAt(i)) || source.charAt(i) == '.'))
+                    i++;
+                tokens.add(source.substring(start, i));
+                continue;
+            }
+
+            if (Character.isJavaIdentifierStart(c)) {
+                int start = i;
+                while (i < len && Character.isJavaIdentifierPart(source.charAt(i)))
+                    i++;
+                tokens.add(source.substring(start, i));
+                continue;
+            }
+
+            if (c == '\'' || c == '"') {
+                int end = source.indexOf(c, i + 1);
+                if (end < 0)
+                    throw new IllegalArgumentException("Unterminated string");
+                tokens.add(source.substring(i, end + 1));
+                i = end + 1;
+                continue;
+            }
+
+            for (String op : OPERATORS) {
+                if (source.startsWith(op, i)) {
+                    tokens.add(op);
+                    i += op.length();
+                    continue outer;
+                }
+            }
+            throw new IllegalArgumentException("Unexpected character: " + c);
+        }
+        return tokens;
+    }
+
+    /** Whether the token is a number literal. */
+    public static boolean isNumber(String token) {
+        return !token.isEmpty() && (Character.isDigit(token.charAt(0)) || token.charAt(0) == '.');
+    }
+
+    /** Whether the token is a quoted string literal. */
+    public static boolean isString(String token) {
+        return token.length() >= 2 && (token.charAt(0) == '\'' || token.charAt(0) == '"');
+    }
+
+    /** Whether the token is an identifier. */
+    public static boolean isIdentifier(String token) {
+        return !token.isEmpty() && Character.isJavaIdentifierStart(token.charAt(0));
+    }
+
+    private static boolean isOperand(String token) {
+        char c = token.charAt(0);
+        return Character.isJavaIdentifierPart(c) || token.equals(")");
+    }
+}
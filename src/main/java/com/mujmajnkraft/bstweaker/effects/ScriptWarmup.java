@@ -0,0 +1,207 @@
+package com.mujmajnkraft.bstweaker.effects;
+
+import com.mujmajnkraft.bstweaker.BSTweaker;
+import com.mujmajnkraft.bstweaker.config.BSTweakerConfig;
+import net.minecraft.entity.EntityLivingBase;
+import net.minecraft.inventory.EntityEquipmentSlot;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.potion.Potion;
+import net.minecraft.potion.PotionEffect;
+import net.minecraft.util.DamageSource;
+import net.minecraft.util.EnumHandSide;
+import net.minecraftforge.event.entity.living.LivingDeathEvent;
+import net.minecraftforge.event.entity.living.LivingHurtEvent;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Script warm-up - runs every compiled event a few times against world-less
+ * stand-in entities, so the first real hit after a start or reload does not
+ * pay for class loading, Nashorn linking and interpreted execution.
+ *
+ * Scripts run without side effects: potions and health stay on the stand-ins,
+ * damage and fire are ignored, the budget/profiler are bypassed and script
+ * logging is muted. Creating the stand-ins is not: the Entity constructor posts
+ * EntityConstructing and AttachCapabilitiesEvent with a null world and takes
+ * two entity ids. They are created once per game, and if another mod's handler
+ * fails on them the warm-up is skipped instead of failing the server start.
+ */
+public class ScriptWarmup {
+
+    private static StandIn self;
+    private static StandIn victim;
+    private static boolean standInsFailed = false;
+
+    /** Run the warm-up (server start, after reload). Returns the time in ms, or -1 if disabled. */
+    public static long run() {
+        int iterations = BSTweakerConfig.warmupIterations;
+        if (iterations <= 0)
+            return -1;
+
+        if (ScriptCache.usesScriptEngine() && !ScriptEngine_.awaitReady(30000))
+            BSTweaker.LOG.warn("Script engine not ready, script events are not warmed up");
+
+        if (!createStandIns())
+            return -1;
+
+        long start = System.nanoTime();
+        int events = 0;
+        int failures = 0;
+
+        for (Map.Entry<Item, WeaponEffects> entry : ScriptCache.getAll().entrySet()) {
+            for (CompiledWeaponEvent cwe : entry.getValue().getAll()) {
+                if (cwe.warmedUp)
+                    continue; // Kept across a reload
+                cwe.warmedUp = true;
+                events++;
+                for (int i = 0; i < iterations; i++) {
+                    self.reset();
+                    victim.reset();
+                    EventContext ctx = context(cwe.event.trigger, self, victim, entry.getKey());
+                    ctx.warmup = true;
+                    boolean failed;
+                    try {
+                        cwe.execute(ctx);
+                        failed = ctx.scriptFailed;
+                    } catch (Exception e) {
+                        failed = true;
+                    } finally {
+                        ScriptEngine_.release(ctx);
+                    }
+                    if (failed) {
+                        failures++;
+                        break; // Scripts that need a real world can't be warmed up
+                    }
+                }
+            }
+        }
+
+        long millis = (System.nanoTime() - start) / 1000000;
+        BSTweaker.LOG.info("Warmed up " + events + " weapon events x " + iterations + " runs in " + millis + " ms"
+                + (failures > 0 ? " (" + failures + " could not run on stand-ins)" : ""));
+        return millis;
+    }
+
+    /** Create the stand-ins on first use (false if they can't be created). */
+    private static boolean createStandIns() {
+        if (self != null)
+            return true;
+        if (standInsFailed)
+            return false;
+        try {
+            self = new StandIn();
+            victim = new StandIn();
+            return true;
+        } catch (RuntimeException e) {
+            // e.g. a capability handler that expects entity.world
+            standInsFailed = true;
+            self = null;
+            BSTweaker.LOG.warn("Could not create warm-up stand-in entities, script warm-up is disabled", e);
+            return false;
+        }
+    }
+
+    /** Synthetic context shaped like the real trigger's. */
+    private static EventContext context(EventTrigger trigger, StandIn self, StandIn victim, Item weapon) {
+        switch (trigger) {
+            case HIT:
+            case HURT:
+                return new EventContext(self, victim, weapon, new LivingHurtEvent(victim, DamageSource.GENERIC, 4.0F));
+            case KILL:
+                return new EventContext(self, victim, weapon, new LivingDeathEvent(victim, DamageSource.GENERIC));
+            default:
+                return new EventContext(self, null, weapon, null);
+        }
+    }
+
+    /** World-less entity - everything that would reach the world or post an event after construction stays local. */
+    private static class StandIn extends EntityLivingBase {
+
+        private final Map<Potion, PotionEffect> potions = new IdentityHashMap<>();
+
+        StandIn() {
+            super(null);
+        }
+
+        void reset() {
+            potions.clear();
+            setHealth(getMaxHealth());
+            hurtResistantTime = 0;
+        }
+
+        @Override
+        public Iterable<ItemStack> getArmorInventoryList() {
+            return Arrays.asList(ItemStack.EMPTY, ItemStack.EMPTY, ItemStack.EMPTY, ItemStack.EMPTY);
+        }
+
+        @Override
+        public ItemStack getItemStackFromSlot(EntityEquipmentSlot slot) {
+            return ItemStack.EMPTY;
+        }
+
+        @Override
+        public void setItemStackToSlot(EntityEquipmentSlot slot, ItemStack stack) {
+        }
+
+        @Override
+        public EnumHandSide getPrimaryHand() {
+            return EnumHandSide.RIGHT;
+        }
+
+        @Override
+        public void heal(float amount) {
+            setHealth(getHealth() + amount);
+        }
+
+        @Override
+        public boolean attackEntityFrom(DamageSource source, float amount) {
+            return false;
+        }
+
+        @Override
+        public void setFire(int seconds) {
+        }
+
+        @Override
+        public boolean isWet() {
+            return false;
+        }
+
+        @Override
+        public void addPotionEffect(PotionEffect effect) {
+            potions.put(effect.getPotion(), effect);
+        }
+
+        @Override
+        public void removePotionEffect(Potion potion) {
+            potions.remove(potion);
+        }
+
+        @Nullable
+        @Override
+        public PotionEffect removeActivePotionEffect(@Nullable Potion potion) {
+            return potions.remove(potion);
+        }
+
+        @Override
+        public boolean isPotionActive(Potion potion) {
+            return potions.containsKey(potion);
+        }
+
+        @Nullable
+        @Override
+        public PotionEffect getActivePotionEffect(Potion potion) {
+            return potions.get(potion);
+        }
+
+        @Override
+        public Collection<PotionEffect> getActivePotionEffects() {
+            return potions.values();
+        }
+    }
+}
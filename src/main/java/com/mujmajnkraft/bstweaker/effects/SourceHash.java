@@ -0,0 +1,27 @@
+package com.mujmajnkraft.bstweaker.effects;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/** Content hash of script sources - decides whether a reload has to recompile. */
+public class SourceHash {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /** SHA-256 of the source as hex. */
+    public static String of(String source) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(source.getBytes(StandardCharsets.UTF_8));
+            char[] hex = new char[digest.length * 2];
+            for (int i = 0; i < digest.length; i++) {
+                hex[i * 2] = HEX[(digest[i] >> 4) & 0xF];
+                hex[i * 2 + 1] = HEX[digest[i] & 0xF];
+            }
+            return new String(hex);
+        } catch (NoSuchAlgorithmException e) {
+            // Every JRE ships SHA-256; fall back to the source itself so comparisons stay exact
+            return source;
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package com.mujmajnkraft.bstweaker.effects;
+
+import com.mujmajnkraft.bstweaker.BSTweaker;
+import com.mujmajnkraft.bstweaker.Reference;
+import net.minecraft.entity.EntityLivingBase;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraftforge.event.entity.living.LivingDeathEvent;
+import net.minecraftforge.event.world.ChunkEvent;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.common.eventhandler.EventPriority;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Delayed and repeating weapon actions on a hierarchical timing wheel.
+ *
+ * Four levels of 64 slots cover about 9 days of ticks. Scheduling and
+ * cancelling are O(1); each server tick only touches the timers due in that
+ * tick (plus, every 64 ticks, one slot moved down a level). Every timer
+ * belongs to an entity and is cancelled when that entity dies or unloads.
+ * Server thread only - client-side events are ignored.
+ */
+@Mod.EventBusSubscriber(modid = Reference.MOD_ID)
+public class TimerWheel {
+
+    /** Work run when a timer fires. */
+    public interface Task {
+        void run(EntityLivingBase owner);
+    }
+
+    /** Scheduled timer - returned to scripts so they can cancel it. */
+    public static class Timer {
+        private long deadline;
+        private int period;
+        private int remaining; // runs left (repeat)
+        private Task task;
+        private EntityLivingBase owner;
+        private Timer prev, next;           // slot list
+        private Timer ownerPrev, ownerNext; // owner's timers
+
+        /** Stop the timer (no-op once it finished). */
+        public void cancel() {
+            if (task != null)
+                TimerWheel.cancel(this);
+        }
+
+        /** Whether the timer will still fire. */
+        public boolean isActive() {
+            return task != null;
+        }
+    }
+
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long MAX_DELAY = (1L << (BITS * LEVELS)) - 1;
+
+    // Slot lists are circular with a sentinel head, so unlinking needs no slot lookup
+    private static final Timer[][] wheel = new Timer[LEVELS][SLOTS];
+    private static final Map<EntityLivingBase, Timer> owners = new IdentityHashMap<>();
+    private static final List<EntityLivingBase> scratch = new ArrayList<>();
+    private static final List<Timer> due = new ArrayList<>();
+    private static long now = 0;
+    private static int active = 0;
+
+    static {
+        for (Timer[] level : wheel) {
+            for (int i = 0; i < SLOTS; i++) {
+                Timer head = new Timer();
+                head.prev = head;
+                head.next = head;
+                level[i] = head;
+            }
+        }
+    }
+
+    /** Run the task once after delay ticks (at least 1). */
+    public static Timer delay(EntityLivingBase owner, int delay, Task task) {
+        return schedule(owner, delay, 0, 1, task);
+    }
+
+    /** Run the task count times, every period ticks (first run after one period). */
+    public static Timer repeat(EntityLivingBase owner, int period, int count, Task task) {
+        return schedule(owner, period, Math.max(1, period), Math.max(1, count), task);
+    }
+
+    private static Timer schedule(EntityLivingBase owner, int delay, int period, int count, Task task) {
+        Timer timer = new Timer();
+        timer.deadline = now + Math.min(Math.max(1, delay), MAX_DELAY);
+        timer.period = period;
+        timer.remaining = count;
+        timer.task = task;
+        timer.owner = owner;
+
+        Timer first = owners.get(owner);
+        timer.ownerNext = first;
+        if (first != null)
+            first.ownerPrev = timer;
+        owners.put(owner, timer);
+
+        insert(timer);
+        active++;
+        return timer;
+    }
+
+    /** Advance one tick and run the due timers (server tick end). */
+    static void tick() {
+        now++;
+        if (active == 0)
+            return;
+
+        // Move timers of the levels whose slot just rolled over down towards level 0
+        int level = 0;
+        while (level < LEVELS - 1 && ((now >>> (BITS * level)) & MASK) == 0) {
+            level++;
+        }
+        for (int l = level; l > 0; l--) {
+            Timer head = wheel[l][(int) ((now >>> (BITS * l)) & MASK)];
+            for (Timer t = detach(head); t != null; ) {
+                Timer next = t.next;
+                insert(t);
+                t = next;
+            }
+        }
+
+        // Unlink all due timers first - a task may cancel any of them
+        for (Timer t = detach(wheel[0][(int) (now & MASK)]); t != null; ) {
+            Timer next = t.next;
+            t.prev = null;
+            t.next = null;
+            due.add(t);
+            t = next;
+        }
+        for (Timer t : due) {
+            if (t.task != null)
+                fire(t);
+        }
+        due.clear();
+    }
+
+    private static void fire(Timer t) {
+        EntityLivingBase owner = t.owner;
+        if (owner.isDead || !owner.isAddedToWorld()) {
+            cancelAll(owner);
+            return;
+        }
+
+        boolean last = --t.remaining <= 0;
+        if (!last) {
+            t.deadline = now + t.period;
+            insert(t);
+        }
+        Task task = t.task;
+        if (last)
+            remove(t);
+        try {
+            task.run(owner);
+        } catch (Exception e) {
+            BSTweaker.LOG.error("Timer error: " + e.getMessage());
+        }
+    }
+
+    /** Put the timer into the slot of its deadline, on the lowest level that can hold it. */
+    private static void insert(Timer t) {
+        long delta = t.deadline - now;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= (1L << (BITS * (level + 1)))) {
+            level++;
+        }
+        Timer head = wheel[level][(int) ((t.deadline >>> (BITS * level)) & MASK)];
+        t.prev = head.prev;
+        t.next = head;
+        head.prev.next = t;
+        head.prev = t;
+    }
+
+    /** Empty a slot, returning its timers as a null-terminated chain. */
+    private static Timer detach(Timer head) {
+        if (head.next == head)
+            return null;
+        Timer first = head.next;
+        head.prev.next = null;
+        head.next = head;
+        head.prev = head;
+        return first;
+    }
+
+    private static void cancel(Timer t) {
+        if (t.next != null) {
+            t.prev.next = t.next;
+            t.next.prev = t.prev;
+        }
+        remove(t);
+    }
+
+    /** Forget a finished or cancelled timer (already out of its slot). */
+    private static void remove(Timer t) {
+        if (t.ownerPrev != null) {
+            t.ownerPrev.ownerNext = t.ownerNext;
+        } else if (t.ownerNext != null) {
+            owners.put(t.owner, t.ownerNext);
+        } else {
+            owners.remove(t.owner);
+        }
+        if (t.ownerNext != null)
+            t.ownerNext.ownerPrev = t.ownerPrev;
+        t.prev = null;
+        t.next = null;
+        t.ownerPrev = null;
+        t.ownerNext = null;
+        t.task = null;
+        t.owner = null;
+        active--;
+    }
+
+    /** Cancel every timer of the entity. */
+    public static void cancelAll(EntityLivingBase owner) {
+        Timer t = owners.get(owner);
+        while (t != null) {
+            Timer next = t.ownerNext;
+            cancel(t);
+            t = next;
+        }
+    }
+
+    /** Number of pending timers. */
+    public static int getActiveCount() {
+        return active;
+    }
+
+    @SubscribeEvent(priority = EventPriority.LOWEST)
+    public static void onLivingDeath(LivingDeathEvent event) {
+        if (!owners.isEmpty() && !event.getEntityLiving().world.isRemote)
+            cancelAll(event.getEntityLiving());
+    }
+
+    @SubscribeEvent
+    public static void onChunkUnload(ChunkEvent.Unload event) {
+        if (owners.isEmpty() || event.getChunk().getWorld().isRemote)
+            return;
+        Chunk chunk = event.getChunk();
+        for (EntityLivingBase owner : owners.keySet()) {
+            if (owner.world == chunk.getWorld() && owner.chunkCoordX == chunk.x && owner.chunkCoordZ == chunk.z)
+                scratch.add(owner);
+        }
+        cancelScratch();
+    }
+
+    @SubscribeEvent
+    public static void onWorldUnload(WorldEvent.Unload event) {
+        if (owners.isEmpty() || event.getWorld().isRemote)
+            return;
+        World world = event.getWorld();
+        for (EntityLivingBase owner : owners.keySet()) {
+            if (owner.world == world)
+                scratch.add(owner);
+        }
+        cancelScratch();
+    }
+
+    private static void cancelScratch() {
+        for (EntityLivingBase owner : scratch) {
+            cancelAll(owner);
+        }
+        scratch.clear();
+    }
+}
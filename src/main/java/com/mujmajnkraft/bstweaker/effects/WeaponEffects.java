@@ -0,0 +1,79 @@
+package com.mujmajnkraft.bstweaker.effects;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Compiled effects of one weapon, indexed by side and trigger. Client events are
+ * separate copies (no profiler stats, budget or reuse), never run on the server thread.
+ */
+public class WeaponEffects {
+
+    private static final CompiledWeaponEvent[] NONE = new CompiledWeaponEvent[0];
+
+    private final CompiledWeaponEvent[][] byTrigger = new CompiledWeaponEvent[EventTrigger.count()][];
+    private final CompiledWeaponEvent[][] clientByTrigger = new CompiledWeaponEvent[EventTrigger.count()][];
+    private final CompiledWeaponEvent[] batchedHits;
+    private final List<CompiledWeaponEvent> all;
+    private final boolean hasClientEvents;
+    private final PotionClamp clamp;
+
+    public WeaponEffects(List<CompiledWeaponEvent> events, List<CompiledWeaponEvent> clientEvents, PotionClamp clamp) {
+        this.clamp = clamp;
+        this.all = Collections.unmodifiableList(new ArrayList<>(events));
+        for (EventTrigger trigger : EventTrigger.values()) {
+            byTrigger[trigger.ordinal()] = select(events, trigger, false);
+            clientByTrigger[trigger.ordinal()] = select(clientEvents, trigger, true);
+        }
+        this.hasClientEvents = !clientEvents.isEmpty();
+
+        List<CompiledWeaponEvent> batched = new ArrayList<>();
+        for (CompiledWeaponEvent cwe : events) {
+            if (cwe.event.isBatched())
+                batched.add(cwe);
+        }
+        this.batchedHits = batched.isEmpty() ? NONE : batched.toArray(NONE);
+    }
+
+    private static CompiledWeaponEvent[] select(List<CompiledWeaponEvent> events, EventTrigger trigger,
+            boolean client) {
+        List<CompiledWeaponEvent> matching = new ArrayList<>();
+        for (CompiledWeaponEvent cwe : events) {
+            EventSide side = cwe.event.side;
+            if (cwe.event.trigger == trigger && (client ? side.onClient() : side.onServer() && !cwe.event.isBatched()))
+                matching.add(cwe);
+        }
+        return matching.isEmpty() ? NONE : matching.toArray(NONE);
+    }
+
+    /** Get server-side events for a trigger (empty array if none). */
+    public CompiledWeaponEvent[] get(EventTrigger trigger) {
+        return byTrigger[trigger.ordinal()];
+    }
+
+    /** Get batched onHit events, run once per tick for all hits (empty array if none). */
+    public CompiledWeaponEvent[] getBatchedHits() {
+        return batchedHits;
+    }
+
+    /** Get client-side events for a trigger (empty array if none). */
+    public CompiledWeaponEvent[] getClient(EventTrigger trigger) {
+        return clientByTrigger[trigger.ordinal()];
+    }
+
+    /** Whether any event runs on the client. */
+    public boolean hasClientEvents() {
+        return hasClientEvents;
+    }
+
+    /** Get potion clamp rules for the holder (null if none). */
+    public PotionClamp getClamp() {
+        return clamp;
+    }
+
+    /** Get all server-side compiled events. */
+    public List<CompiledWeaponEvent> getAll() {
+        return all;
+    }
+}
@@ -6,20 +6,97 @@ import com.google.gson.JsonObject;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.regex.Pattern;
 
 /** Weapon event config - parsed from JSON. */
 public class WeaponEvent {
     
+    // Script API backed by server-thread state (area scans, timers, effect state) - not usable on the client
+    private static final String[] SERVER_ONLY = { "explodeDamage", "pulseHeal", "delay", "repeat", "getInt", "setInt",
+            "addInt", "getFloat", "setFloat", "addFloat", "getLong", "setLong", "cooldown" };
+    
     public final String eventType; // Event type
+    public final EventTrigger trigger; // Normalized event type (null if unknown)
     public final String condition; // Condition expression
     public final List<String> actions; // Action list
     public final String comment; // Comment
+    public final int period; // whenHeld interval in ticks (0 = config default)
+    public final String sideName; // Side as written in the config
+    public final EventSide side; // Logical side (null if unknown)
+    public final boolean batch; // Batch same-tick hits (onHit only)
+    
+    private String script; // Joined action source (built once)
+    private String hash; // Source hash (built once)
     
     public WeaponEvent(String eventType, String condition, List<String> actions, String comment) {
+        this(eventType, condition, actions, comment, 0);
+    }
+    
+    public WeaponEvent(String eventType, String condition, List<String> actions, String comment, int period) {
+        this(eventType, condition, actions, comment, period, "");
+    }
+    
+    public WeaponEvent(String eventType, String condition, List<String> actions, String comment, int period,
+            String sideName) {
+        this(eventType, condition, actions, comment, period, sideName, false);
+    }
+    
+    public WeaponEvent(String eventType, String condition, List<String> actions, String comment, int period,
+            String sideName, boolean batch) {
         this.eventType = eventType;
+        this.trigger = EventTrigger.fromName(eventType);
         this.condition = condition;
         this.actions = actions;
         this.comment = comment;
+        this.period = period;
+        this.sideName = sideName;
+        this.side = EventSide.fromName(sideName);
+        this.batch = batch;
+    }
+    
+    /** Get all actions merged into one script source. */
+    public String getScript() {
+        if (script == null) {
+            StringBuilder sb = new StringBuilder();
+            for (String action : actions) {
+                sb.append(action).append("\n");
+            }
+            script = sb.toString();
+        }
+        return script;
+    }
+    
+    /** Hash of everything that affects the compiled event (the comment doesn't). */
+    public String getHash() {
+        if (hash == null) {
+            hash = SourceHash.of(eventType + "\u0000" + condition + "\u0000" + period + "\u0000" + side + "\u0000"
+                    + batch + "\u0000" + getScript());
+        }
+        return hash;
+    }
+    
+    /** Whether hits are batched - requested on an onHit event that doesn't use the (already applied) hurt event. */
+    public boolean isBatched() {
+        return batch && trigger == EventTrigger.HIT && !mentions(condition, "event") && !mentions(getScript(), "event");
+    }
+    
+    /** Whether a batched event's condition is tested once per batch (it doesn't use victim or randomness). */
+    public boolean hasBatchCondition() {
+        return isBatched() && !condition.trim().isEmpty() && !mentions(condition, "victim")
+                && !mentions(condition, "random") && !mentions(condition, "chance");
+    }
+    
+    /** Whether the condition or actions use area, timer or effect state calls (server only). */
+    public boolean usesServerOnlyApi() {
+        for (String name : SERVER_ONLY) {
+            if (mentions(condition, name) || mentions(getScript(), name))
+                return true;
+        }
+        return false;
+    }
+    
+    private static boolean mentions(String source, String name) {
+        return Pattern.compile("(?<![\\w$])" + name + "(?![\\w$])").matcher(source).find();
     }
     
     /** Parse event config from JSON. */
@@ -27,6 +104,9 @@ public class WeaponEvent {
         String eventType = json.has("event") ? json.get("event").getAsString() : "";
         String condition = json.has("when") ? json.get("when").getAsString() : "";
         String comment = json.has("_comment") ? json.get("_comment").getAsString() : "";
+        int period = json.has("period") ? json.get("period").getAsInt() : 0;
+        String side = json.has("side") ? json.get("side").getAsString() : "";
+        boolean batch = json.has("batch") && json.get("batch").getAsBoolean();
         
         List<String> actions = new ArrayList<>();
         if (json.has("actions")) {
@@ -36,7 +116,7 @@ public class WeaponEvent {
             }
         }
         
-        return new WeaponEvent(eventType, condition, actions, comment);
+        return new WeaponEvent(eventType, condition, actions, comment, period, side, batch);
     }
     
     /** Parse event list from JSON array. */
@@ -2,35 +2,34 @@ package com.mujmajnkraft.bstweaker.effects.actions;
 
 import com.mujmajnkraft.bstweaker.effects.EventAction;
 import com.mujmajnkraft.bstweaker.effects.EventContext;
+import com.mujmajnkraft.bstweaker.effects.PotionBuffer;
 import net.minecraft.entity.EntityLivingBase;
 import net.minecraft.potion.Potion;
 import net.minecraft.potion.PotionEffect;
-import net.minecraft.util.ResourceLocation;
 
 /** Apply potion effect. */
 public class ApplyPotionAction implements EventAction {
     
     private final String target;
-    private final String potionId;
+    private final Potion potion;
     private final int duration;
     private final int amplifier;
     
-    public ApplyPotionAction(String target, String[] args) {
+    public ApplyPotionAction(String target, Potion potion, int duration, int amplifier) {
         this.target = target;
-        this.potionId = args.length > 0 ? args[0] : "";
-        this.duration = args.length > 1 ? Integer.parseInt(args[1]) : 100;
-        this.amplifier = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+        this.potion = potion;
+        this.duration = duration;
+        this.amplifier = amplifier;
     }
     
     @Override
     public void execute(EventContext context) {
+        if (potion == null) return;
+        
         EntityLivingBase entity = getTarget(context);
         if (entity == null) return;
         
-        Potion potion = Potion.REGISTRY.getObject(new ResourceLocation(potionId));
-        if (potion == null) return;
-        
-        entity.addPotionEffect(new PotionEffect(potion, duration, amplifier));
+        PotionBuffer.add(entity, new PotionEffect(potion, duration, amplifier));
     }
     
     private EntityLivingBase getTarget(EventContext context) {
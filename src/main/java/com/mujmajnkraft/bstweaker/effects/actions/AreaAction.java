@@ -0,0 +1,32 @@
+package com.mujmajnkraft.bstweaker.effects.actions;
+
+import com.mujmajnkraft.bstweaker.effects.AreaEffects;
+import com.mujmajnkraft.bstweaker.effects.EventAction;
+import com.mujmajnkraft.bstweaker.effects.EventContext;
+import net.minecraft.entity.EntityLivingBase;
+
+/** Area action - explodeDamage(radius, amount) / pulseHeal(radius, amount). */
+public class AreaAction implements EventAction {
+
+    private final String target;
+    private final boolean heal;
+    private final double radius;
+    private final float amount;
+
+    public AreaAction(String target, boolean heal, String[] args) {
+        this.target = target;
+        this.heal = heal;
+        this.radius = Double.parseDouble(args[0]);
+        this.amount = args.length > 1 ? Float.parseFloat(args[1]) : 2.0f;
+    }
+
+    @Override
+    public void execute(EventContext context) {
+        EntityLivingBase center = "victim".equals(target) ? context.victim : context.self;
+        if (heal) {
+            AreaEffects.pulseHeal(center, radius, amount);
+        } else {
+            AreaEffects.explodeDamage(center, context.self, radius, amount);
+        }
+    }
+}
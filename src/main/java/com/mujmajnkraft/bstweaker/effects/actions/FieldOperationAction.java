@@ -5,44 +5,37 @@ import com.mujmajnkraft.bstweaker.effects.EventAction;
 import com.mujmajnkraft.bstweaker.effects.EventContext;
 import net.minecraftforge.event.entity.living.LivingHurtEvent;
 
-/** Field operation action - compound assignments (+=, -=, *=, /=). */
+/** Field operation action - compound assignments (+=, -=, *=, /=), operand parsed once. */
 public class FieldOperationAction implements EventAction {
     
-    private final String target;
-    private final String fieldName;
-    private final String operator;
-    private final String value;
+    private final char operator;
+    private final float operand;
+    private final boolean supported;
     
     public FieldOperationAction(String target, String fieldName, String operator, String value) {
-        this.target = target;
-        this.fieldName = fieldName;
-        this.operator = operator;
-        this.value = value;
+        this.operator = operator.isEmpty() ? ' ' : operator.charAt(0);
+        this.operand = Float.parseFloat(value.trim());
+        this.supported = "event".equals(target) && "amount".equals(fieldName);
+        if (!supported) {
+            BSTweaker.LOG.warn("Unsupported field operation: " + target + "." + fieldName);
+        }
     }
     
     @Override
     public void execute(EventContext context) {
-        // Special handling for LivingHurtEvent.amount
-        if ("event".equals(target) && "amount".equals(fieldName) 
-            && context.forgeEvent instanceof LivingHurtEvent) {
-            
+        // Special handling for LivingHurtEvent.amount (no-op for other events, like the script API)
+        if (supported && context.forgeEvent instanceof LivingHurtEvent) {
             LivingHurtEvent event = (LivingHurtEvent) context.forgeEvent;
-            float current = event.getAmount();
-            float operand = Float.parseFloat(value);
-            float newValue = calculate(current, operand);
-            event.setAmount(newValue);
-            return;
+            event.setAmount(calculate(event.getAmount()));
         }
-        
-        BSTweaker.LOG.warn("Unsupported field operation: " + target + "." + fieldName);
     }
     
-    private float calculate(float current, float operand) {
+    private float calculate(float current) {
         switch (operator) {
-            case "+": return current + operand;
-            case "-": return current - operand;
-            case "*": return current * operand;
-            case "/": return operand != 0 ? current / operand : current;
+            case '+': return current + operand;
+            case '-': return current - operand;
+            case '*': return current * operand;
+            case '/': return operand != 0 ? current / operand : current;
             default: return current;
         }
     }
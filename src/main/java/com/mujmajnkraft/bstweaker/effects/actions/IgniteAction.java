@@ -15,6 +15,11 @@ public class IgniteAction implements EventAction {
         this.ticks = args.length > 0 ? Integer.parseInt(args[0]) : 100;
     }
     
+    public IgniteAction(String target, int ticks) {
+        this.target = target;
+        this.ticks = ticks;
+    }
+    
     @Override
     public void execute(EventContext context) {
         EntityLivingBase entity = getTarget(context);
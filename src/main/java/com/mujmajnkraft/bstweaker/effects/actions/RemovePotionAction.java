@@ -2,30 +2,29 @@ package com.mujmajnkraft.bstweaker.effects.actions;
 
 import com.mujmajnkraft.bstweaker.effects.EventAction;
 import com.mujmajnkraft.bstweaker.effects.EventContext;
+import com.mujmajnkraft.bstweaker.effects.PotionBuffer;
 import net.minecraft.entity.EntityLivingBase;
 import net.minecraft.potion.Potion;
-import net.minecraft.util.ResourceLocation;
 
 /** Remove potion effect. */
 public class RemovePotionAction implements EventAction {
     
     private final String target;
-    private final String potionId;
+    private final Potion potion;
     
-    public RemovePotionAction(String target, String[] args) {
+    public RemovePotionAction(String target, Potion potion) {
         this.target = target;
-        this.potionId = args.length > 0 ? args[0] : "";
+        this.potion = potion;
     }
     
     @Override
     public void execute(EventContext context) {
+        if (potion == null) return;
+        
         EntityLivingBase entity = getTarget(context);
         if (entity == null) return;
         
-        Potion potion = Potion.REGISTRY.getObject(new ResourceLocation(potionId));
-        if (potion != null) {
-            entity.removePotionEffect(potion);
-        }
+        PotionBuffer.remove(entity, potion);
     }
     
     private EntityLivingBase getTarget(EventContext context) {
@@ -0,0 +1,35 @@
+package com.mujmajnkraft.bstweaker.effects.actions;
+
+import com.mujmajnkraft.bstweaker.effects.EventAction;
+import com.mujmajnkraft.bstweaker.effects.EventContext;
+import com.mujmajnkraft.bstweaker.effects.ScriptEngine_;
+import com.mujmajnkraft.bstweaker.effects.ScriptProfiler;
+
+import javax.script.CompiledScript;
+
+/** Script action - runs a precompiled JavaScript chunk that has no native equivalent. */
+public class ScriptAction implements EventAction {
+    
+    private final CompiledScript script;
+    private final ScriptProfiler.Stats stats; // null = not profiled
+    
+    public ScriptAction(CompiledScript script) {
+        this(script, null);
+    }
+    
+    public ScriptAction(CompiledScript script, ScriptProfiler.Stats stats) {
+        this.script = script;
+        this.stats = stats;
+    }
+    
+    @Override
+    public void execute(EventContext context) {
+        if (stats == null || !ScriptProfiler.isEnabled()) {
+            ScriptEngine_.execute(script, context);
+            return;
+        }
+        long start = System.nanoTime();
+        ScriptEngine_.execute(script, context);
+        stats.recordScript(System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,1046 @@
+package com.mujmajnkraft.bstweaker.effects.compiler;
+
+import com.mujmajnkraft.bstweaker.BSTweaker;
+import com.mujmajnkraft.bstweaker.effects.EffectStateStore;
+import com.mujmajnkraft.bstweaker.effects.EventAction;
+import com.mujmajnkraft.bstweaker.effects.PotionHandles;
+import com.mujmajnkraft.bstweaker.effects.ScriptTokenizer;
+import net.minecraft.potion.Potion;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Action compiler - turns a weapon event's condition and actions into one
+ * generated EventAction class, so effects run as plain bytecode the JIT can
+ * inline instead of going through the script engine.
+ *
+ * The language is the typed subset of the script API:
+ * - Statements: var/let/const x = expr, x = expr, x op= expr, if/else, { }, return
+ * - Expressions: numbers, true/false, null, locals, + - * / %, comparisons, ! && ||, ?:
+ * - random(), chance(p), Math.random/min/max/abs/floor/ceil/round/sqrt/pow, Math.PI
+ * - self / victim: health, maxHealth, healthRatio, hurtResistantTime, isBurning, isInWater,
+ *   isWet, isSneaking, onGround, hasPotion('id'), heal, setHealth, damage, setFire, ignite,
+ *   setHurtResistantTime, addPotion/addPotionEffect/applyPotion, removePotion/removePotionEffect,
+ *   suppressPotion, suppressBadEffects, explodeDamage, pulseHeal (property and getter style both accepted),
+ *   effect state getInt/setInt/addInt, getFloat/setFloat/addFloat, getLong/setLong, cooldown
+ * - event: amount / getAmount(), setAmount(x), cancel(), event.amount = / op= expr
+ *
+ * Numbers are doubles like in JavaScript; potion ids and state keys must be string literals.
+ * Returns null for anything else so the caller can fall back to the script engine.
+ */
+public class ActionCompiler {
+
+    private static final String RUNTIME = "com/mujmajnkraft/bstweaker/effects/compiler/ActionRuntime";
+    private static final String BASE = "com/mujmajnkraft/bstweaker/effects/compiler/GeneratedAction";
+    private static final String POTION = "net/minecraft/potion/Potion";
+    private static final String CONTEXT = "com/mujmajnkraft/bstweaker/effects/EventContext";
+    private static final String ENTITY = "net/minecraft/entity/EntityLivingBase";
+    private static final String ENTITY_DESC = "L" + ENTITY + ";";
+    private static final String POTION_DESC = "L" + POTION + ";";
+    private static final String GENERATED_PREFIX = "com/mujmajnkraft/bstweaker/effects/compiler/generated/Action";
+
+    // Names bound by the script engine - not usable as locals
+    private static final Set<String> RESERVED = new HashSet<>(Arrays.asList(
+            "self", "victim", "event", "Potion", "log", "Math", "random", "chance", "var", "let", "const", "if",
+            "else", "return", "true", "false", "null", "undefined", "function", "while", "for", "new", "this"));
+
+    private static final AtomicInteger counter = new AtomicInteger();
+
+    /** Compile condition (may be empty) and actions into a generated action (null if unsupported). */
+    public static EventAction compile(String name, String condition, String script) {
+        List<String> conditionTokens;
+        List<String> scriptTokens;
+        try {
+            conditionTokens = condition == null ? null : ScriptTokenizer.tokenize(condition);
+            scriptTokens = ScriptTokenizer.tokenize(script);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (scriptTokens.isEmpty())
+            return null;
+
+        String className = GENERATED_PREFIX + counter.incrementAndGet() + "_" + sanitize(name);
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS) {
+            @Override
+            protected String getCommonSuperClass(String type1, String type2) {
+                // Only our own fixed types meet at merge points - never load classes here
+                return "java/lang/Object";
+            }
+        };
+        cw.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER, className, null, BASE,
+                null);
+        cw.visitSource(name, null);
+
+        MethodVisitor init = cw.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "([" + POTION_DESC + ")V", null, null);
+        init.visitCode();
+        init.visitVarInsn(Opcodes.ALOAD, 0);
+        init.visitVarInsn(Opcodes.ALOAD, 1);
+        init.visitMethodInsn(Opcodes.INVOKESPECIAL, BASE, "<init>", "([" + POTION_DESC + ")V", false);
+        init.visitInsn(Opcodes.RETURN);
+        init.visitMaxs(0, 0);
+        init.visitEnd();
+
+        MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "execute", "(L" + CONTEXT + ";)V", null, null);
+        mv.visitCode();
+        Compiler compiler = new Compiler(mv);
+        try {
+            if (conditionTokens != null && !conditionTokens.isEmpty())
+                compiler.compileCondition(conditionTokens);
+            compiler.compileStatements(scriptTokens);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        mv.visitInsn(Opcodes.RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+        cw.visitEnd();
+
+        try {
+            Potion[] potions = new Potion[compiler.potionIds.size()];
+            for (int i = 0; i < potions.length; i++) {
+                potions[i] = PotionHandles.get(compiler.potionIds.get(i));
+                if (potions[i] == null)
+                    BSTweaker.LOG.warn("Unknown potion in " + name + ": " + compiler.potionIds.get(i));
+            }
+            Class<?> clazz = new GeneratedClassLoader().define(className.replace('/', '.'), cw.toByteArray());
+            return (EventAction) clazz.getConstructor(Potion[].class).newInstance((Object) potions);
+        } catch (Throwable e) {
+            BSTweaker.LOG.warn("Failed to load compiled action for " + name + ": " + e);
+            return null;
+        }
+    }
+
+    private static String sanitize(String name) {
+        StringBuilder sb = new StringBuilder();
+        for (char c : name.toCharArray()) {
+            sb.append(Character.isJavaIdentifierPart(c) ? c : '_');
+        }
+        return sb.toString();
+    }
+
+    /** One loader per generated class, so replaced actions can be unloaded after a reload. */
+    private static class GeneratedClassLoader extends ClassLoader {
+        GeneratedClassLoader() {
+            super(ActionCompiler.class.getClassLoader());
+        }
+
+        Class<?> define(String name, byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+
+    // ========== Compiler ==========
+
+    /** Static type of a compiled expression. */
+    private enum Type {
+        NUM, BOOL, ENTITY, NULL, VOID
+    }
+
+    /** Local variable slot. */
+    private static class Local {
+        final Type type;
+        final int slot;
+        final boolean blockScoped; // let / const
+        final boolean constant;
+
+        Local(Type type, int slot, String keyword) {
+            this.type = type;
+            this.slot = slot;
+            this.blockScoped = !keyword.equals("var");
+            this.constant = keyword.equals("const");
+        }
+    }
+
+    /** Single pass parser that emits bytecode as it goes (slot 0 = this, slot 1 = context). */
+    private static class Compiler {
+        private final MethodVisitor mv;
+        final List<String> potionIds = new ArrayList<>();
+        private final Deque<Map<String, Local>> scopes = new ArrayDeque<>();
+        private final Set<String> varNames = new HashSet<>();
+        private List<String> tokens;
+        private int pos;
+        private int nextSlot = 2;
+
+        Compiler(MethodVisitor mv) {
+            this.mv = mv;
+            scopes.push(new HashMap<>());
+        }
+
+        void compileCondition(List<String> condition) {
+            reset(condition);
+            Type type = expression();
+            if (!atEnd())
+                throw new IllegalArgumentException("Unexpected token: " + peek());
+            toBool(type);
+            Label pass = new Label();
+            mv.visitJumpInsn(Opcodes.IFNE, pass);
+            mv.visitInsn(Opcodes.RETURN);
+            mv.visitLabel(pass);
+        }
+
+        void compileStatements(List<String> script) {
+            reset(script);
+            while (!atEnd()) {
+                statement();
+            }
+        }
+
+        private void reset(List<String> newTokens) {
+            tokens = newTokens;
+            pos = 0;
+        }
+
+        // ---------- Token helpers ----------
+
+        private boolean atEnd() {
+            return pos >= tokens.size();
+        }
+
+        private String peek() {
+            return peek(0);
+        }
+
+        private String peek(int offset) {
+            return pos + offset < tokens.size() ? tokens.get(pos + offset) : "";
+        }
+
+        private boolean accept(String token) {
+            if (peek().equals(token)) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(String token) {
+            if (!accept(token))
+                throw new IllegalArgumentException("Expected " + token + " but found " + peek());
+        }
+
+        private String next() {
+            if (atEnd())
+                throw new IllegalArgumentException("Unexpected end");
+            return tokens.get(pos++);
+        }
+
+        private static boolean isAssignOp(String token) {
+            return token.equals("=") || token.equals("+=") || token.equals("-=") || token.equals("*=")
+                    || token.equals("/=") || token.equals("%=");
+        }
+
+        // ---------- Scopes ----------
+
+        private Local lookup(String name) {
+            for (Map<String, Local> scope : scopes) {
+                Local local = scope.get(name);
+                if (local != null)
+                    return local;
+            }
+            return null;
+        }
+
+        /**
+         * Declare a local. var is function scoped like in JavaScript: redeclaring a visible
+         * var reassigns it. A var first declared in a block stays unknown after the block
+         * (the script falls back) and mixing var with let/const of the same name is left to
+         * the script engine, since both would need hoisting.
+         */
+        private Local declare(String keyword, String name, Type type) {
+            if (RESERVED.contains(name) || !ScriptTokenizer.isIdentifier(name))
+                throw new IllegalArgumentException("Invalid variable name: " + name);
+            if (keyword.equals("var")) {
+                Local existing = lookup(name);
+                if (existing != null) {
+                    if (existing.blockScoped)
+                        throw new IllegalArgumentException("var shadows let/const: " + name);
+                    if (existing.type != type)
+                        throw new IllegalArgumentException("Variable type changed: " + name);
+                    return existing;
+                }
+                varNames.add(name);
+            } else if (scopes.peek().containsKey(name) || varNames.contains(name)) {
+                throw new IllegalArgumentException("Variable redeclared: " + name);
+            }
+            Local local = new Local(type, nextSlot, keyword);
+            nextSlot += type == Type.NUM ? 2 : 1;
+            scopes.peek().put(name, local);
+            return local;
+        }
+
+        private void load(Local local) {
+            switch (local.type) {
+                case NUM:
+                    mv.visitVarInsn(Opcodes.DLOAD, local.slot);
+                    break;
+                case BOOL:
+                    mv.visitVarInsn(Opcodes.ILOAD, local.slot);
+                    break;
+                default:
+                    mv.visitVarInsn(Opcodes.ALOAD, local.slot);
+                    break;
+            }
+        }
+
+        private void store(Local local) {
+            switch (local.type) {
+                case NUM:
+                    mv.visitVarInsn(Opcodes.DSTORE, local.slot);
+                    break;
+                case BOOL:
+                    mv.visitVarInsn(Opcodes.ISTORE, local.slot);
+                    break;
+                default:
+                    mv.visitVarInsn(Opcodes.ASTORE, local.slot);
+                    break;
+            }
+        }
+
+        // ---------- Statements ----------
+
+        private void statement() {
+            if (accept(";"))
+                return;
+
+            if (accept("{")) {
+                scopes.push(new HashMap<>());
+                while (!accept("}")) {
+                    if (atEnd())
+                        throw new IllegalArgumentException("Unterminated block");
+                    statement();
+                }
+                scopes.pop();
+                return;
+            }
+
+            if (accept("if")) {
+                expect("(");
+                toBool(expression());
+                expect(")");
+                Label otherwise = new Label();
+                mv.visitJumpInsn(Opcodes.IFEQ, otherwise);
+                scopedStatement();
+                if (accept("else")) {
+                    Label end = new Label();
+                    mv.visitJumpInsn(Opcodes.GOTO, end);
+                    mv.visitLabel(otherwise);
+                    scopedStatement();
+                    mv.visitLabel(end);
+                } else {
+                    mv.visitLabel(otherwise);
+                }
+                return;
+            }
+
+            if (accept("return")) {
+                if (!atEnd() && !peek().equals(";") && !peek().equals("}"))
+                    throw new IllegalArgumentException("Return values are not supported");
+                mv.visitInsn(Opcodes.RETURN);
+                accept(";");
+                return;
+            }
+
+            if (peek().equals("var") || peek().equals("let") || peek().equals("const")) {
+                String keyword = next();
+                do {
+                    String name = next();
+                    expect("=");
+                    Type type = expression();
+                    if (type == Type.VOID || type == Type.NULL)
+                        throw new IllegalArgumentException("Cannot store " + type);
+                    store(declare(keyword, name, type));
+                } while (accept(","));
+                accept(";");
+                return;
+            }
+
+            // Local assignment: x = expr, x += expr
+            if (ScriptTokenizer.isIdentifier(peek()) && isAssignOp(peek(1)) && lookup(peek()) != null) {
+                Local local = lookup(next());
+                if (local.constant)
+                    throw new IllegalArgumentException("Assignment to constant: " + tokens.get(pos - 1));
+                String op = next();
+                if (op.equals("=")) {
+                    requireType(expression(), local.type);
+                } else {
+                    if (local.type != Type.NUM)
+                        throw new IllegalArgumentException("Number expected");
+                    load(local);
+                    requireType(expression(), Type.NUM);
+                    arithmetic(op.substring(0, 1));
+                }
+                store(local);
+                accept(";");
+                return;
+            }
+
+            // Property assignment: event.amount *= 2, victim.hurtResistantTime = 0
+            if (peek(1).equals(".") && isAssignOp(peek(3))) {
+                propertyAssignment();
+                accept(";");
+                return;
+            }
+
+            pop(expression());
+            accept(";");
+        }
+
+        /** Branch body - declarations inside it are not visible after it. */
+        private void scopedStatement() {
+            scopes.push(new HashMap<>());
+            statement();
+            scopes.pop();
+        }
+
+        private void propertyAssignment() {
+            String owner = next();
+            expect(".");
+            String field = next();
+            String op = next();
+
+            if (owner.equals("event")) {
+                if (!field.equals("amount"))
+                    throw new IllegalArgumentException("Unknown event field: " + field);
+                mv.visitVarInsn(Opcodes.ALOAD, 1);
+                if (!op.equals("=")) {
+                    mv.visitVarInsn(Opcodes.ALOAD, 1);
+                    invoke("getAmount", "(L" + CONTEXT + ";)D");
+                }
+                requireType(expression(), Type.NUM);
+                if (!op.equals("="))
+                    arithmetic(op.substring(0, 1));
+                invoke("setAmount", "(L" + CONTEXT + ";D)V");
+                return;
+            }
+
+            if (loadEntity(owner) == null)
+                throw new IllegalArgumentException("Unknown target: " + owner);
+            String getter;
+            String setter;
+            switch (field) {
+                case "hurtResistantTime":
+                    getter = "hurtResistantTime";
+                    setter = "setHurtResistantTime";
+                    break;
+                case "health":
+                    getter = "health";
+                    setter = "setHealth";
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown field: " + field);
+            }
+            if (!op.equals("=")) {
+                mv.visitInsn(Opcodes.DUP);
+                invoke(getter, "(" + ENTITY_DESC + ")D");
+            }
+            requireType(expression(), Type.NUM);
+            if (!op.equals("="))
+                arithmetic(op.substring(0, 1));
+            invoke(setter, "(" + ENTITY_DESC + "D)V");
+        }
+
+        // ---------- Expressions ----------
+
+        private Type expression() {
+            return ternary();
+        }
+
+        private Type ternary() {
+            Type condition = or();
+            if (!accept("?"))
+                return condition;
+            toBool(condition);
+            Label otherwise = new Label();
+            Label end = new Label();
+            mv.visitJumpInsn(Opcodes.IFEQ, otherwise);
+            Type a = ternary();
+            expect(":");
+            mv.visitJumpInsn(Opcodes.GOTO, end);
+            mv.visitLabel(otherwise);
+            Type b = ternary();
+            mv.visitLabel(end);
+            if (a != b || (a != Type.NUM && a != Type.BOOL))
+                throw new IllegalArgumentException("Mismatched ?: branches");
+            return a;
+        }
+
+        private Type or() {
+            Type left = and();
+            while (accept("||")) {
+                requireType(left, Type.BOOL);
+                Label end = new Label();
+                mv.visitInsn(Opcodes.DUP);
+                mv.visitJumpInsn(Opcodes.IFNE, end);
+                mv.visitInsn(Opcodes.POP);
+                requireType(and(), Type.BOOL);
+                mv.visitLabel(end);
+            }
+            return left;
+        }
+
+        private Type and() {
+            Type left = equality();
+            while (accept("&&")) {
+                requireType(left, Type.BOOL);
+                Label end = new Label();
+                mv.visitInsn(Opcodes.DUP);
+                mv.visitJumpInsn(Opcodes.IFEQ, end);
+                mv.visitInsn(Opcodes.POP);
+                requireType(equality(), Type.BOOL);
+                mv.visitLabel(end);
+            }
+            return left;
+        }
+
+        private Type equality() {
+            Type left = relational();
+            while (peek().equals("==") || peek().equals("===") || peek().equals("!=") || peek().equals("!==")) {
+                boolean negate = next().startsWith("!");
+                Type right = relational();
+                if (left == Type.NUM && right == Type.NUM) {
+                    mv.visitInsn(Opcodes.DCMPL);
+                    pushCondition(negate ? Opcodes.IFNE : Opcodes.IFEQ);
+                } else if (left == Type.BOOL && right == Type.BOOL) {
+                    pushCondition(negate ? Opcodes.IF_ICMPNE : Opcodes.IF_ICMPEQ);
+                } else if (isReference(left) && isReference(right)) {
+                    pushCondition(negate ? Opcodes.IF_ACMPNE : Opcodes.IF_ACMPEQ);
+                } else {
+                    throw new IllegalArgumentException("Incompatible operands");
+                }
+                left = Type.BOOL;
+            }
+            return left;
+        }
+
+        private Type relational() {
+            Type left = additive();
+            String op = peek();
+            if (!op.equals("<") && !op.equals("<=") && !op.equals(">") && !op.equals(">="))
+                return left;
+            next();
+            requireType(left, Type.NUM);
+            requireType(additive(), Type.NUM);
+            // NaN compares false: DCMPG yields 1 for < / <=, DCMPL yields -1 for > / >=
+            switch (op) {
+                case "<":
+                    mv.visitInsn(Opcodes.DCMPG);
+                    pushCondition(Opcodes.IFLT);
+                    break;
+                case "<=":
+                    mv.visitInsn(Opcodes.DCMPG);
+                    pushCondition(Opcodes.IFLE);
+                    break;
+                case ">":
+                    mv.visitInsn(Opcodes.DCMPL);
+                    pushCondition(Opcodes.IFGT);
+                    break;
+                default:
+                    mv.visitInsn(Opcodes.DCMPL);
+                    pushCondition(Opcodes.IFGE);
+                    break;
+            }
+            return Type.BOOL;
+        }
+
+        private Type additive() {
+            Type left = multiplicative();
+            while (peek().equals("+") || peek().equals("-")) {
+                String op = next();
+                requireType(left, Type.NUM);
+                requireType(multiplicative(), Type.NUM);
+                arithmetic(op);
+            }
+            return left;
+        }
+
+        private Type multiplicative() {
+            Type left = unary();
+            while (peek().equals("*") || peek().equals("/") || peek().equals("%")) {
+                String op = next();
+                requireType(left, Type.NUM);
+                requireType(unary(), Type.NUM);
+                arithmetic(op);
+            }
+            return left;
+        }
+
+        private Type unary() {
+            if (accept("!")) {
+                toBool(unary());
+                mv.visitInsn(Opcodes.ICONST_1);
+                mv.visitInsn(Opcodes.IXOR);
+                return Type.BOOL;
+            }
+            if (accept("-")) {
+                requireType(unary(), Type.NUM);
+                mv.visitInsn(Opcodes.DNEG);
+                return Type.NUM;
+            }
+            if (accept("+")) {
+                requireType(unary(), Type.NUM);
+                return Type.NUM;
+            }
+            return primary();
+        }
+
+        private Type primary() {
+            String token = next();
+
+            if (token.equals("(")) {
+                Type inner = expression();
+                expect(")");
+                return inner;
+            }
+            if (ScriptTokenizer.isNumber(token)) {
+                pushNumber(Double.parseDouble(token));
+                return Type.NUM;
+            }
+
+            switch (token) {
+                case "true":
+                    mv.visitInsn(Opcodes.ICONST_1);
+                    return Type.BOOL;
+                case "false":
+                    mv.visitInsn(Opcodes.ICONST_0);
+                    return Type.BOOL;
+                case "null":
+                    mv.visitInsn(Opcodes.ACONST_NULL);
+                    return Type.NULL;
+                case "random":
+                    expect("(");
+                    expect(")");
+                    invoke("random", "()D");
+                    return Type.NUM;
+                case "chance":
+                    expect("(");
+                    requireType(expression(), Type.NUM);
+                    expect(")");
+                    invoke("chance", "(D)Z");
+                    return Type.BOOL;
+                case "Math":
+                    return mathMember();
+                case "event":
+                    return eventMember();
+                default:
+                    break;
+            }
+
+            Type entity = loadEntity(token);
+            if (entity != null)
+                return accept(".") ? entityMember() : Type.ENTITY;
+
+            Local local = lookup(token);
+            if (local == null)
+                throw new IllegalArgumentException("Unknown identifier: " + token);
+            load(local);
+            return local.type;
+        }
+
+        /** Load self, victim or an entity local (null if the name is none of those). */
+        private Type loadEntity(String name) {
+            if (name.equals("self") || name.equals("victim")) {
+                mv.visitVarInsn(Opcodes.ALOAD, 1);
+                mv.visitFieldInsn(Opcodes.GETFIELD, CONTEXT, name, ENTITY_DESC);
+                return Type.ENTITY;
+            }
+            Local local = lookup(name);
+            if (local != null && local.type == Type.ENTITY) {
+                load(local);
+                return Type.ENTITY;
+            }
+            return null;
+        }
+
+        private Type mathMember() {
+            expect(".");
+            String member = next();
+            if (member.equals("PI")) {
+                pushNumber(Math.PI);
+                return Type.NUM;
+            }
+            expect("(");
+            switch (member) {
+                case "random":
+                    expect(")");
+                    invoke("random", "()D");
+                    return Type.NUM;
+                case "min":
+                case "max": {
+                    requireType(expression(), Type.NUM);
+                    int count = 1;
+                    while (accept(",")) {
+                        requireType(expression(), Type.NUM);
+                        mv.visitMethodInsn(Opcodes.INVOKESTATIC, "java/lang/Math", member, "(DD)D", false);
+                        count++;
+                    }
+                    expect(")");
+                    if (count < 2)
+                        throw new IllegalArgumentException("Math." + member + " needs two arguments");
+                    return Type.NUM;
+                }
+                case "pow":
+                    requireType(expression(), Type.NUM);
+                    expect(",");
+                    requireType(expression(), Type.NUM);
+                    expect(")");
+                    mv.visitMethodInsn(Opcodes.INVOKESTATIC, "java/lang/Math", "pow", "(DD)D", false);
+                    return Type.NUM;
+                case "abs":
+                case "floor":
+                case "ceil":
+                case "sqrt":
+                    requireType(expression(), Type.NUM);
+                    expect(")");
+                    mv.visitMethodInsn(Opcodes.INVOKESTATIC, "java/lang/Math", member, "(D)D", false);
+                    return Type.NUM;
+                case "round":
+                    requireType(expression(), Type.NUM);
+                    expect(")");
+                    invoke("round", "(D)D");
+                    return Type.NUM;
+                default:
+                    throw new IllegalArgumentException("Unsupported Math function: " + member);
+            }
+        }
+
+        private Type eventMember() {
+            expect(".");
+            String member = next();
+            switch (member) {
+                case "amount":
+                    mv.visitVarInsn(Opcodes.ALOAD, 1);
+                    invoke("getAmount", "(L" + CONTEXT + ";)D");
+                    return Type.NUM;
+                case "getAmount":
+                    expect("(");
+                    expect(")");
+                    mv.visitVarInsn(Opcodes.ALOAD, 1);
+                    invoke("getAmount", "(L" + CONTEXT + ";)D");
+                    return Type.NUM;
+                case "setAmount":
+                    expect("(");
+                    mv.visitVarInsn(Opcodes.ALOAD, 1);
+                    requireType(expression(), Type.NUM);
+                    expect(")");
+                    invoke("setAmount", "(L" + CONTEXT + ";D)V");
+                    return Type.VOID;
+                case "cancel":
+                    expect("(");
+                    expect(")");
+                    mv.visitVarInsn(Opcodes.ALOAD, 1);
+                    invoke("cancel", "(L" + CONTEXT + ";)V");
+                    return Type.VOID;
+                default:
+                    throw new IllegalArgumentException("Unknown event member: " + member);
+            }
+        }
+
+        /** Member of self / victim - the entity is already on the stack. */
+        private Type entityMember() {
+            String member = next();
+            boolean call = accept("(");
+
+            switch (member) {
+                case "health":
+                case "getHealth":
+                    return getter(call, "health", "D", Type.NUM);
+                case "maxHealth":
+                case "getMaxHealth":
+                    return getter(call, "maxHealth", "D", Type.NUM);
+                case "healthRatio":
+                case "getHealthRatio":
+                    return getter(call, "healthRatio", "D", Type.NUM);
+                case "hurtResistantTime":
+                case "getHurtResistantTime":
+                    return getter(call, "hurtResistantTime", "D", Type.NUM);
+                case "isBurning":
+                case "burning":
+                    return getter(call, "isBurning", "Z", Type.BOOL);
+                case "isInWater":
+                case "inWater":
+                    return getter(call, "isInWater", "Z", Type.BOOL);
+                case "isWet":
+                case "wet":
+                    return getter(call, "isWet", "Z", Type.BOOL);
+                case "isSneaking":
+                case "sneaking":
+                    return getter(call, "isSneaking", "Z", Type.BOOL);
+                case "onGround":
+                case "isOnGround":
+                    return getter(call, "onGround", "Z", Type.BOOL);
+                default:
+                    break;
+            }
+
+            if (!call)
+                throw new IllegalArgumentException("Unknown member: " + member);
+
+            switch (member) {
+                case "heal":
+                    numberArgs(1, 1);
+                    invoke("heal", "(" + ENTITY_DESC + "D)V");
+                    return Type.VOID;
+                case "setHealth":
+                    numberArgs(1, 1);
+                    invoke("setHealth", "(" + ENTITY_DESC + "D)V");
+                    return Type.VOID;
+                case "setHurtResistantTime":
+                    numberArgs(1, 1);
+                    invoke("setHurtResistantTime", "(" + ENTITY_DESC + "D)V");
+                    return Type.VOID;
+                case "damage":
+                    numberArgs(0, 1, 2.0);
+                    invoke("damage", "(" + ENTITY_DESC + "D)V");
+                    return Type.VOID;
+                case "explodeDamage":
+                    mv.visitVarInsn(Opcodes.ALOAD, 1);
+                    mv.visitFieldInsn(Opcodes.GETFIELD, CONTEXT, "self", ENTITY_DESC);
+                    numberArgs(1, 2, 2.0);
+                    invoke("explodeDamage", "(" + ENTITY_DESC + ENTITY_DESC + "DD)V");
+                    return Type.VOID;
+                case "pulseHeal":
+                    numberArgs(1, 2, 2.0);
+                    invoke("pulseHeal", "(" + ENTITY_DESC + "DD)V");
+                    return Type.VOID;
+                case "setFire":
+                    numberArgs(1, 1);
+                    invoke("setFire", "(" + ENTITY_DESC + "D)V");
+                    return Type.VOID;
+                case "ignite":
+                    numberArgs(0, 1, 100.0);
+                    invoke("ignite", "(" + ENTITY_DESC + "D)V");
+                    return Type.VOID;
+                case "suppressBadEffects":
+                    numberArgs(1, 1);
+                    invoke("suppressBadEffects", "(" + ENTITY_DESC + "D)V");
+                    return Type.VOID;
+                case "addPotion":
+                case "applyPotion":
+                    potionArg();
+                    moreNumberArgs(0, 2, 100.0, 0.0);
+                    invoke("addPotion", "(" + ENTITY_DESC + POTION_DESC + "DD)V");
+                    return Type.VOID;
+                case "addPotionEffect":
+                    potionArg();
+                    moreNumberArgs(2, 2);
+                    invoke("addPotion", "(" + ENTITY_DESC + POTION_DESC + "DD)V");
+                    return Type.VOID;
+                case "removePotion":
+                case "removePotionEffect":
+                    potionArg();
+                    moreNumberArgs(0, 0);
+                    invoke("removePotion", "(" + ENTITY_DESC + POTION_DESC + ")V");
+                    return Type.VOID;
+                case "hasPotion":
+                case "hasPotionEffect":
+                    potionArg();
+                    moreNumberArgs(0, 0);
+                    invoke("hasPotion", "(" + ENTITY_DESC + POTION_DESC + ")Z");
+                    return Type.BOOL;
+                case "suppressPotion":
+                    potionArg();
+                    moreNumberArgs(0, 1, 0.0);
+                    invoke("suppressPotion", "(" + ENTITY_DESC + POTION_DESC + "D)V");
+                    return Type.VOID;
+                case "getInt":
+                case "getFloat":
+                case "getLong":
+                    stateKeyArg();
+                    moreNumberArgs(0, 0);
+                    invoke(member, "(" + ENTITY_DESC + "I)D");
+                    return Type.NUM;
+                case "setInt":
+                case "setFloat":
+                case "setLong":
+                    stateKeyArg();
+                    moreNumberArgs(1, 1);
+                    invoke(member, "(" + ENTITY_DESC + "ID)V");
+                    return Type.VOID;
+                case "addInt":
+                case "addFloat":
+                    stateKeyArg();
+                    moreNumberArgs(1, 1);
+                    invoke(member, "(" + ENTITY_DESC + "ID)D");
+                    return Type.NUM;
+                case "cooldown":
+                    stateKeyArg();
+                    moreNumberArgs(1, 1);
+                    invoke("cooldown", "(" + ENTITY_DESC + "ID)Z");
+                    return Type.BOOL;
+                default:
+                    throw new IllegalArgumentException("Unknown member: " + member);
+            }
+        }
+
+        private Type getter(boolean call, String helper, String returnDesc, Type type) {
+            if (call)
+                expect(")");
+            invoke(helper, "(" + ENTITY_DESC + ")" + returnDesc);
+            return type;
+        }
+
+        /** Potion id string literal as the first argument. */
+        private void potionArg() {
+            String token = next();
+            if (!ScriptTokenizer.isString(token))
+                throw new IllegalArgumentException("Potion id must be a string literal");
+            String id = token.substring(1, token.length() - 1);
+            int index = potionIds.indexOf(id);
+            if (index < 0) {
+                index = potionIds.size();
+                potionIds.add(id);
+            }
+            mv.visitVarInsn(Opcodes.ALOAD, 0);
+            mv.visitFieldInsn(Opcodes.GETFIELD, BASE, "potions", "[" + POTION_DESC);
+            pushInt(index);
+            mv.visitInsn(Opcodes.AALOAD);
+        }
+
+        /** State key string literal as the first argument - its slot is baked in. */
+        private void stateKeyArg() {
+            String token = next();
+            if (!ScriptTokenizer.isString(token))
+                throw new IllegalArgumentException("State key must be a string literal");
+            int slot = EffectStateStore.key(token.substring(1, token.length() - 1));
+            if (slot < 0)
+                throw new IllegalArgumentException("Too many state keys");
+            pushInt(slot);
+        }
+
+        /** Numeric arguments up to ")" - missing trailing ones take the given defaults. */
+        private void numberArgs(int min, int max, double... defaults) {
+            int count = 0;
+            if (!peek().equals(")")) {
+                do {
+                    requireType(expression(), Type.NUM);
+                    count++;
+                } while (accept(","));
+            }
+            finishArgs(count, min, max, defaults);
+        }
+
+        /** Numeric arguments after a first (potion) argument. */
+        private void moreNumberArgs(int min, int max, double... defaults) {
+            int count = 0;
+            while (accept(",")) {
+                requireType(expression(), Type.NUM);
+                count++;
+            }
+            finishArgs(count, min, max, defaults);
+        }
+
+        /** Close the argument list and push defaults (indexed from the first optional argument). */
+        private void finishArgs(int count, int min, int max, double... defaults) {
+            expect(")");
+            if (count < min || count > max)
+                throw new IllegalArgumentException("Wrong argument count");
+            for (int i = count; i < max; i++) {
+                pushNumber(defaults[i - min]);
+            }
+        }
+
+        // ---------- Emit helpers ----------
+
+        private void invoke(String name, String desc) {
+            mv.visitMethodInsn(Opcodes.INVOKESTATIC, RUNTIME, name, desc, false);
+        }
+
+        private void arithmetic(String op) {
+            switch (op) {
+                case "+":
+                    mv.visitInsn(Opcodes.DADD);
+                    break;
+                case "-":
+                    mv.visitInsn(Opcodes.DSUB);
+                    break;
+                case "*":
+                    mv.visitInsn(Opcodes.DMUL);
+                    break;
+                case "/":
+                    mv.visitInsn(Opcodes.DDIV);
+                    break;
+                default:
+                    mv.visitInsn(Opcodes.DREM);
+                    break;
+            }
+        }
+
+        /** Turn the jump opcode into a 0/1 int on the stack. */
+        private void pushCondition(int jumpOpcode) {
+            Label isTrue = new Label();
+            Label end = new Label();
+            mv.visitJumpInsn(jumpOpcode, isTrue);
+            mv.visitInsn(Opcodes.ICONST_0);
+            mv.visitJumpInsn(Opcodes.GOTO, end);
+            mv.visitLabel(isTrue);
+            mv.visitInsn(Opcodes.ICONST_1);
+            mv.visitLabel(end);
+        }
+
+        private void pushNumber(double value) {
+            if (value == 0 && 1 / value > 0)
+                mv.visitInsn(Opcodes.DCONST_0);
+            else if (value == 1)
+                mv.visitInsn(Opcodes.DCONST_1);
+            else
+                mv.visitLdcInsn(value);
+        }
+
+        private void pushInt(int value) {
+            if (value <= 5)
+                mv.visitInsn(Opcodes.ICONST_0 + value);
+            else if (value <= Byte.MAX_VALUE)
+                mv.visitIntInsn(Opcodes.BIPUSH, value);
+            else
+                mv.visitIntInsn(Opcodes.SIPUSH, value);
+        }
+
+        /** Convert the value on the stack to a boolean (JavaScript truthiness). */
+        private void toBool(Type type) {
+            switch (type) {
+                case BOOL:
+                    break;
+                case NUM:
+                    invoke("truthy", "(D)Z");
+                    break;
+                case ENTITY:
+                    pushCondition(Opcodes.IFNONNULL);
+                    break;
+                case NULL:
+                    mv.visitInsn(Opcodes.POP);
+                    mv.visitInsn(Opcodes.ICONST_0);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Boolean expected");
+            }
+        }
+
+        private void pop(Type type) {
+            if (type == Type.NUM)
+                mv.visitInsn(Opcodes.POP2);
+            else if (type != Type.VOID)
+                mv.visitInsn(Opcodes.POP);
+        }
+
+        private static boolean isReference(Type type) {
+            return type == Type.ENTITY || type == Type.NULL;
+        }
+
+        private static void requireType(Type actual, Type expected) {
+            if (actual != expected)
+                throw new IllegalArgumentException(expected + " expected, got " + actual);
+        }
+    }
+}
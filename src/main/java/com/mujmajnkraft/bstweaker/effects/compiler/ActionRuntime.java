@@ -0,0 +1,224 @@
+package com.mujmajnkraft.bstweaker.effects.compiler;
+
+import com.mujmajnkraft.bstweaker.effects.AreaEffects;
+import com.mujmajnkraft.bstweaker.effects.EffectStateStore;
+import com.mujmajnkraft.bstweaker.effects.EventContext;
+import com.mujmajnkraft.bstweaker.effects.PotionBuffer;
+import net.minecraft.entity.EntityLivingBase;
+import net.minecraft.potion.Potion;
+import net.minecraft.potion.PotionEffect;
+import net.minecraft.util.DamageSource;
+import net.minecraftforge.event.entity.living.LivingHurtEvent;
+import net.minecraftforge.fml.common.eventhandler.Event;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Runtime helpers called by generated actions.
+ *
+ * Generated bytecode only calls these static methods, never Minecraft members
+ * directly: member names are obfuscated at runtime, but this class is
+ * reobfuscated with the rest of the mod. Null entities are ignored, like the
+ * native actions do.
+ */
+public final class ActionRuntime {
+
+    private ActionRuntime() {
+    }
+
+    // ========== Math ==========
+
+    public static double random() {
+        return ThreadLocalRandom.current().nextDouble();
+    }
+
+    public static boolean chance(double probability) {
+        return ThreadLocalRandom.current().nextDouble() < probability;
+    }
+
+    /** JavaScript truthiness of a number. */
+    public static boolean truthy(double value) {
+        return value != 0 && !Double.isNaN(value);
+    }
+
+    /** JavaScript Math.round (halves round up). */
+    public static double round(double value) {
+        return Math.floor(value + 0.5);
+    }
+
+    // ========== Entity reads ==========
+
+    public static double health(EntityLivingBase e) {
+        return e != null ? e.getHealth() : 0;
+    }
+
+    public static double maxHealth(EntityLivingBase e) {
+        return e != null ? e.getMaxHealth() : 0;
+    }
+
+    public static double healthRatio(EntityLivingBase e) {
+        return e != null && e.getMaxHealth() > 0 ? e.getHealth() / e.getMaxHealth() : 0;
+    }
+
+    public static double hurtResistantTime(EntityLivingBase e) {
+        return e != null ? e.hurtResistantTime : 0;
+    }
+
+    public static boolean isBurning(EntityLivingBase e) {
+        return e != null && e.isBurning();
+    }
+
+    public static boolean isInWater(EntityLivingBase e) {
+        return e != null && e.isInWater();
+    }
+
+    public static boolean isWet(EntityLivingBase e) {
+        return e != null && e.isWet();
+    }
+
+    public static boolean isSneaking(EntityLivingBase e) {
+        return e != null && e.isSneaking();
+    }
+
+    public static boolean onGround(EntityLivingBase e) {
+        return e != null && e.onGround;
+    }
+
+    public static boolean hasPotion(EntityLivingBase e, Potion potion) {
+        return e != null && potion != null && e.isPotionActive(potion);
+    }
+
+    // ========== Entity writes ==========
+
+    public static void setHealth(EntityLivingBase e, double health) {
+        if (e != null)
+            e.setHealth((float) health);
+    }
+
+    public static void heal(EntityLivingBase e, double amount) {
+        if (e != null)
+            e.heal((float) amount);
+    }
+
+    public static void setHurtResistantTime(EntityLivingBase e, double ticks) {
+        if (e != null)
+            e.hurtResistantTime = (int) ticks;
+    }
+
+    public static void damage(EntityLivingBase e, double amount) {
+        if (e != null)
+            e.attackEntityFrom(DamageSource.GENERIC, (float) amount);
+    }
+
+    /** Area damage credited to the attacker (the event's self). */
+    public static void explodeDamage(EntityLivingBase e, EntityLivingBase attacker, double radius, double amount) {
+        AreaEffects.explodeDamage(e, attacker, radius, (float) amount);
+    }
+
+    public static void pulseHeal(EntityLivingBase e, double radius, double amount) {
+        AreaEffects.pulseHeal(e, radius, (float) amount);
+    }
+
+    /** Script API setFire - seconds. */
+    public static void setFire(EntityLivingBase e, double seconds) {
+        if (e != null)
+            e.setFire((int) seconds);
+    }
+
+    /** Native ignite - ticks. */
+    public static void ignite(EntityLivingBase e, double ticks) {
+        if (e != null)
+            e.setFire((int) ticks / 20);
+    }
+
+    public static void addPotion(EntityLivingBase e, Potion potion, double duration, double amplifier) {
+        if (e != null && potion != null)
+            PotionBuffer.add(e, new PotionEffect(potion, (int) duration, (int) amplifier));
+    }
+
+    public static void removePotion(EntityLivingBase e, Potion potion) {
+        if (e != null && potion != null)
+            PotionBuffer.remove(e, potion);
+    }
+
+    /** Cap one potion's amplifier (keeps duration, ambient and particles). */
+    public static void suppressPotion(EntityLivingBase e, Potion potion, double maxLevel) {
+        if (e == null || potion == null)
+            return;
+        PotionEffect effect = e.getActivePotionEffect(potion);
+        if (effect != null && effect.getAmplifier() > (int) maxLevel) {
+            PotionBuffer.replace(e, new PotionEffect(potion, effect.getDuration(), (int) maxLevel, effect.getIsAmbient(),
+                    effect.doesShowParticles()));
+        }
+    }
+
+    /** Cap all negative potions' amplifier. */
+    public static void suppressBadEffects(EntityLivingBase e, double maxLevel) {
+        if (e == null)
+            return;
+        List<PotionEffect> toSuppress = new ArrayList<>();
+        for (PotionEffect effect : e.getActivePotionEffects()) {
+            if (effect.getPotion().isBadEffect() && effect.getAmplifier() > (int) maxLevel)
+                toSuppress.add(effect);
+        }
+        for (PotionEffect effect : toSuppress) {
+            PotionBuffer.replace(e, new PotionEffect(effect.getPotion(), effect.getDuration(), (int) maxLevel));
+        }
+    }
+
+    // ========== Effect state (key = slot resolved at compile time) ==========
+
+    public static double getInt(EntityLivingBase e, int key) {
+        return EffectStateStore.getInt(e, key);
+    }
+
+    public static void setInt(EntityLivingBase e, int key, double value) {
+        EffectStateStore.setInt(e, key, (int) value);
+    }
+
+    public static double addInt(EntityLivingBase e, int key, double delta) {
+        return EffectStateStore.addInt(e, key, (int) delta);
+    }
+
+    public static double getFloat(EntityLivingBase e, int key) {
+        return EffectStateStore.getFloat(e, key);
+    }
+
+    public static void setFloat(EntityLivingBase e, int key, double value) {
+        EffectStateStore.setFloat(e, key, (float) value);
+    }
+
+    public static double addFloat(EntityLivingBase e, int key, double delta) {
+        return EffectStateStore.addFloat(e, key, (float) delta);
+    }
+
+    public static double getLong(EntityLivingBase e, int key) {
+        return EffectStateStore.getLong(e, key);
+    }
+
+    public static void setLong(EntityLivingBase e, int key, double value) {
+        EffectStateStore.setLong(e, key, (long) value);
+    }
+
+    public static boolean cooldown(EntityLivingBase e, int key, double ticks) {
+        return EffectStateStore.cooldown(e, key, (int) ticks);
+    }
+
+    // ========== Event ==========
+
+    public static double getAmount(EventContext ctx) {
+        return ctx.forgeEvent instanceof LivingHurtEvent ? ((LivingHurtEvent) ctx.forgeEvent).getAmount() : 0;
+    }
+
+    public static void setAmount(EventContext ctx, double amount) {
+        if (ctx.forgeEvent instanceof LivingHurtEvent)
+            ((LivingHurtEvent) ctx.forgeEvent).setAmount((float) amount);
+    }
+
+    public static void cancel(EventContext ctx) {
+        if (ctx.forgeEvent instanceof Event && ((Event) ctx.forgeEvent).isCancelable())
+            ((Event) ctx.forgeEvent).setCanceled(true);
+    }
+}
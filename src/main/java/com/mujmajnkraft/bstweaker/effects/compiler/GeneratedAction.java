@@ -0,0 +1,14 @@
+package com.mujmajnkraft.bstweaker.effects.compiler;
+
+import com.mujmajnkraft.bstweaker.effects.EventAction;
+import net.minecraft.potion.Potion;
+
+/** Base class of actions generated by ActionCompiler - holds the event's resolved potion constants. */
+public abstract class GeneratedAction implements EventAction {
+
+    protected final Potion[] potions;
+
+    protected GeneratedAction(Potion[] potions) {
+        this.potions = potions;
+    }
+}
@@ -1,9 +1,8 @@
 package com.mujmajnkraft.bstweaker.mixin.weapons;
 
+import com.mujmajnkraft.bstweaker.effects.EquipmentSnapshot;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.EntityLivingBase;
-import net.minecraft.item.ItemStack;
-import net.minecraft.nbt.NBTTagCompound;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
@@ -18,9 +17,6 @@ import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
 @Mixin(targets = "com.mujmajnkraft.bettersurvival.items.ItemDagger", remap = false)
 public class MixinItemDagger {
 
-    private static final String TAG_BSTWEAKER = "bstweaker";
-    private static final String TAG_BACKSTAB_MULTIPLIER = "backstabMultiplier";
-
     /**
      * Inject into getBackstabMultiplier to override return value
      * If weapon has custom backstabMultiplier, use custom value
@@ -28,18 +24,9 @@ public class MixinItemDagger {
     @Inject(method = "getBackstabMultiplier", at = @At("RETURN"), cancellable = true, remap = false)
     private void onGetBackstabMultiplier(EntityLivingBase user, Entity target, boolean offhand,
             CallbackInfoReturnable<Float> cir) {
-        // Get weapon
-        ItemStack weapon = offhand ? user.getHeldItemOffhand() : user.getHeldItemMainhand();
-        if (weapon.isEmpty())
-            return;
-
-        // Check bstweaker NBT
-        NBTTagCompound tag = weapon.getTagCompound();
-        if (tag == null || !tag.hasKey(TAG_BSTWEAKER))
-            return;
-
-        NBTTagCompound bstweaker = tag.getCompoundTag(TAG_BSTWEAKER);
-        if (!bstweaker.hasKey(TAG_BACKSTAB_MULTIPLIER))
+        // Custom multiplier from the weapon's bstweaker NBT (read once per tick, see EquipmentSnapshot)
+        float customMultiplier = EquipmentSnapshot.of(user).getBackstabMultiplier(offhand);
+        if (Float.isNaN(customMultiplier))
             return;
 
         // Get original return value (to check if backstab)
@@ -47,8 +34,6 @@ public class MixinItemDagger {
 
         // If original > 1, it's a backstab attack
         if (original > 1.0f) {
-            float customMultiplier = bstweaker.getFloat(TAG_BACKSTAB_MULTIPLIER);
-
             // Keep assassinate enchant bonus (original - 2.0 = enchant bonus)
             float enchantBonus = original - 2.0f;
             float newValue = customMultiplier + enchantBonus;
@@ -19,6 +19,8 @@ import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.google.gson.JsonPrimitive;
 import com.mujmajnkraft.bstweaker.effects.EffectEventHandler;
+import com.mujmajnkraft.bstweaker.effects.HeldWeaponTracker;
+import com.mujmajnkraft.bstweaker.effects.ScriptLibrary;
 import com.mujmajnkraft.bstweaker.effects.WeaponEvent;
 import com.mujmajnkraft.bstweaker.validation.ConfigValidationErrors;
 import com.mujmajnkraft.bstweaker.validation.WeaponAttributeValidator;
@@ -139,6 +141,7 @@ public class TweakerWeaponInjector {
                         new java.io.FileInputStream(scriptsFile), java.nio.charset.StandardCharsets.UTF_8));
                 if (scriptsElement != null && scriptsElement.isJsonObject()) {
                     JsonObject scriptsRoot = scriptsElement.getAsJsonObject();
+                    ScriptLibrary.load(scriptsRoot);
                     if (scriptsRoot.has("scripts")) {
                         for (JsonElement elem : scriptsRoot.getAsJsonArray("scripts")) {
                             JsonObject s = elem.getAsJsonObject();
@@ -271,6 +274,7 @@ public class TweakerWeaponInjector {
                 JsonObject scriptsRoot = parser.parse(new java.io.InputStreamReader(
                         new java.io.FileInputStream(scriptsFile), java.nio.charset.StandardCharsets.UTF_8))
                         .getAsJsonObject();
+                ScriptLibrary.load(scriptsRoot);
                 if (scriptsRoot.has("scripts")) {
                     for (JsonElement elem : scriptsRoot.getAsJsonArray("scripts")) {
                         JsonObject s = elem.getAsJsonObject();
@@ -283,44 +287,59 @@ public class TweakerWeaponInjector {
                 System.out.println("[BSTweaker] Reloaded " + scriptMap.size() + " script definitions");
             }
 
-            // Update existing weapons
-            for (Map.Entry<Item, JsonObject> entry : itemDefinitionMap.entrySet()) {
-                Item item = entry.getKey();
-                JsonObject weaponDef = entry.getValue();
-                String id = weaponDef.get("id").getAsString();
+            // Unchanged events keep their compiled form, the rest are recompiled on re-register
+            EffectEventHandler.beginReload();
+            boolean reloaded = false;
+            try {
+                // Update existing weapons
+                for (Map.Entry<Item, JsonObject> entry : itemDefinitionMap.entrySet()) {
+                    Item item = entry.getKey();
+                    JsonObject weaponDef = entry.getValue();
+                    String id = weaponDef.get("id").getAsString();
+
+                    // Update tooltip
+                    if (tooltipMap.containsKey(id)) {
+                        JsonObject tooltip = tooltipMap.get(id);
+                        if (tooltip.has("displayName"))
+                            weaponDef.add("displayName", tooltip.get("displayName"));
+                        if (tooltip.has("tooltip"))
+                            weaponDef.add("tooltip", tooltip.get("tooltip"));
+                    }
 
-                // Update tooltip
-                if (tooltipMap.containsKey(id)) {
-                    JsonObject tooltip = tooltipMap.get(id);
-                    if (tooltip.has("displayName"))
-                        weaponDef.add("displayName", tooltip.get("displayName"));
-                    if (tooltip.has("tooltip"))
-                        weaponDef.add("tooltip", tooltip.get("tooltip"));
-                }
+                    // Update scripts
+                    String materialName = weaponDef.has("material")
+                            && weaponDef.getAsJsonObject("material").has("name")
+                                    ? weaponDef.getAsJsonObject("material").get("name").getAsString().toLowerCase()
+                                    : "";
+                    JsonArray eventsArray = null;
 
-                // Update scripts
-                String materialName = weaponDef.has("material")
-                        && weaponDef.getAsJsonObject("material").has("name")
-                                ? weaponDef.getAsJsonObject("material").get("name").getAsString().toLowerCase()
-                                : "";
-                JsonArray eventsArray = null;
-
-                if (scriptMap.containsKey(id)) {
-                    eventsArray = scriptMap.get(id);
-                } else if (!materialName.isEmpty() && scriptMap.containsKey(materialName)) {
-                    eventsArray = scriptMap.get(materialName);
-                }
+                    if (scriptMap.containsKey(id)) {
+                        eventsArray = scriptMap.get(id);
+                    } else if (!materialName.isEmpty() && scriptMap.containsKey(materialName)) {
+                        eventsArray = scriptMap.get(materialName);
+                    }
 
-                if (eventsArray != null) {
-                    // Re-register events
-                    weaponDef.add("events", eventsArray);
-                    List<WeaponEvent> events = WeaponEvent.fromJsonArray(eventsArray);
-                    if (!events.isEmpty()) {
-                        EffectEventHandler.registerWeaponEffects(item, events);
+                    if (eventsArray != null) {
+                        // Re-register events
+                        weaponDef.add("events", eventsArray);
+                        List<WeaponEvent> events = WeaponEvent.fromJsonArray(eventsArray);
+                        if (!events.isEmpty()) {
+                            EffectEventHandler.registerWeaponEffects(item, events);
+                        }
                     }
                 }
+                reloaded = true;
+            } finally {
+                // A malformed definition must not leave the cache half reloaded
+                if (reloaded)
+                    EffectEventHandler.endReload();
+                else
+                    EffectEventHandler.abortReload();
             }
 
+            // Weapons may have gained or lost whenHeld effects
+            HeldWeaponTracker.rescan();
+
             System.out.println("[BSTweaker] Config reload complete");
 
         } catch (Exception e) {
@@ -2,6 +2,8 @@ package com.mujmajnkraft.bstweaker.validation;
 
 import com.mujmajnkraft.bstweaker.Reference;
 import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.server.MinecraftServer;
 import net.minecraft.util.text.TextComponentString;
 import net.minecraftforge.fml.common.FMLCommonHandler;
 import net.minecraftforge.fml.common.Mod;
@@ -98,6 +100,21 @@ public class ValidationErrorNotifier {
         }
     }
 
+    /**
+     * 向在线 OP 发送运行时错误（例如脚本被熔断）
+     */
+    public static void notifyOps(String message) {
+        MinecraftServer server = FMLCommonHandler.instance().getMinecraftServerInstance();
+        if (server == null)
+            return;
+
+        for (EntityPlayerMP player : server.getPlayerList().getPlayers()) {
+            if (server.getPlayerList().canSendCommands(player.getGameProfile())) {
+                player.sendMessage(new TextComponentString(message));
+            }
+        }
+    }
+
     /**
      * 重置会话状态（用于热重载后）
      */